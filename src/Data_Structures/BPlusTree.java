@@ -0,0 +1,663 @@
+package Data_Structures;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Ordered map stored in a B+ tree, with the same add(), contains() and
+ * remove() methods as SplayTree.
+ *
+ * Every node holds up to order keys in an array, so a lookup reads a few
+ * wide nodes instead of one object per key, and binary searches each of
+ * them within a couple of cache lines. Entries are only stored in the
+ * leaves, and the inner nodes hold copies of keys to guide the search.
+ * The leaves are linked from left to right, so subMap() walks a range
+ * by reading consecutive slots of each leaf.
+ *
+ * A node that gets too full is split in two. A node that drops below
+ * half full borrows a key from a sibling, or is merged with it. A sorted
+ * batch of entries can be loaded into an empty tree with bulkLoad(),
+ * which packs the leaves full and builds the tree bottom up in O(n).
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the tree
+ * @param <V> the type of values in the tree
+ */
+public class BPlusTree<K, V> {
+
+    private static final int DEFAULT_ORDER = 64;
+
+    private Node root;
+    private final int maxKeys;
+    private final int minKeys;
+    private int currentSize;
+    private int modCount;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * Creates an empty tree.
+     * @param order, the largest number of keys in a node, at least 3
+     */
+    public BPlusTree(int order) {
+        if(order < 3)
+            throw new IllegalArgumentException("Order must be at least 3.");
+        this.maxKeys = order;
+        this.minKeys = order / 2;
+        this.root = new Leaf(maxKeys);
+        this.currentSize = 0;
+        this.modCount = 0;
+    }
+
+    /**
+     * Adds an entry into the tree. Duplicate entries override existing
+     * data.
+     * @param key, the key of the entry
+     * @param value, the value of the entry
+     * @return true if the item was successfully added to the tree
+     */
+    public boolean add(K key, V value) {
+        if(key == null)
+            throw new IllegalArgumentException("Keys can't be null.");
+        Split split = insert(root, key, value);
+
+        // The root was split, the tree grows one level
+        if(split != null) {
+            Inner newRoot = new Inner(maxKeys);
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.count = 1;
+            this.root = newRoot;
+        }
+        return true;
+    }
+
+    /**
+     * Searches the tree to see if a key exists in the structure
+     * @param key, the key to be searched for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean contains(K key) {
+        Leaf leaf = findLeaf(key);
+
+        return search(leaf, key) >= 0;
+    }
+
+    /**
+     * Returns the value stored under a key
+     * @param key, the key to be searched for
+     * @return the value of the key, null if the key is not in the tree
+     */
+    public V get(K key) {
+        Leaf leaf = findLeaf(key);
+        int index = search(leaf, key);
+
+        return index >= 0 ? (V) leaf.values[index] : null;
+    }
+
+    /**
+     * Removes a key from the tree
+     * @param key, the key to be removed
+     * @return the removed key, null if the key is not in the tree
+     */
+    public K remove(K key) {
+        if(!delete(root, key))
+            return null;
+
+        // The root lost its last key, the tree shrinks one level
+        if(root instanceof Inner && root.count == 0)
+            this.root = ((Inner) root).children[0];
+        return key;
+    }
+
+    /**
+     * Returns the smallest key in the tree
+     * @return the first key, null if the tree is empty
+     */
+    public K firstKey() {
+        Node node = root;
+
+        if(currentSize == 0)
+            return null;
+        while(node instanceof Inner)
+            node = ((Inner) node).children[0];
+        return (K) node.keys[0];
+    }
+
+    /**
+     * Returns the largest key in the tree
+     * @return the last key, null if the tree is empty
+     */
+    public K lastKey() {
+        Node node = root;
+
+        if(currentSize == 0)
+            return null;
+        while(node instanceof Inner)
+            node = ((Inner) node).children[node.count];
+        return (K) node.keys[node.count - 1];
+    }
+
+    /**
+     * Returns an iterator over the entries whose keys lie in a range, in
+     * ascending key order. Finding the first entry costs O(log n), the
+     * rest are read off the linked leaves. The returned entries are
+     * copies, and the iterator is fail fast.
+     * @param from, the lowest key of the range, inclusive
+     * @param to, the highest key of the range, exclusive
+     * @return an iterator over the entries with from <= key < to
+     */
+    public Iterator<Map.Entry<K, V>> subMap(K from, K to) {
+        if(compare(from, to) > 0)
+            throw new IllegalArgumentException("from is larger than to.");
+        return new RangeIterator(from, to);
+    }
+
+    /**
+     * Loads sorted entries into an empty tree. Leaves are packed full and
+     * the inner levels are built on top of them, in O(n) time.
+     * @param keys, the keys to be added, in strictly ascending order
+     * @param values, the values to be added, values[i] belongs to keys[i]
+     */
+    public void bulkLoad(K[] keys, V[] values) {
+        if(keys.length != values.length)
+            throw new IllegalArgumentException("Every key needs a value.");
+        Loader loader = new Loader();
+
+        for(int i = 0; i < keys.length; i++)
+            loader.append(keys[i], values[i]);
+        loader.finish();
+    }
+
+    /**
+     * Loads sorted entries into an empty tree, for example the entrySet()
+     * of a SortedMap. Leaves are packed full and the inner levels are
+     * built on top of them, in O(n) time.
+     * @param entries, the entries to be added, in strictly ascending key
+     * order
+     */
+    public void bulkLoad(Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        Loader loader = new Loader();
+
+        for(Map.Entry<? extends K, ? extends V> entry : entries)
+            loader.append(entry.getKey(), entry.getValue());
+        loader.finish();
+    }
+
+    /**
+     * Returns the number of elements stored in the tree
+     * @return int, the number of keys within the tree
+     */
+    public int size() {
+        return this.currentSize;
+    }
+
+    /**
+     * Checks to see if the tree is currently empty
+     * @return true if there are no elements in the tree, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.currentSize == 0;
+    }
+
+    /**
+     * Inserts an entry below a node.
+     * @return the separator and new right sibling if the node was split,
+     * null otherwise
+     */
+    private Split insert(Node node, K key, V value) {
+        int index = search(node, key);
+
+        if(node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if(index >= 0) {
+                leaf.values[index] = value;
+                return null;
+            }
+            index = -index - 1;
+            insertAt(leaf.keys, leaf.count, index, key);
+            insertAt(leaf.values, leaf.count, index, value);
+            leaf.count++;
+            currentSize++;
+            modCount++;
+            return leaf.count > maxKeys ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) node;
+        index = childIndex(index);
+        Split split = insert(inner.children[index], key, value);
+        if(split == null)
+            return null;
+        insertAt(inner.keys, inner.count, index, split.key);
+        insertAt(inner.children, inner.count + 1, index + 1, split.right);
+        inner.count++;
+        return inner.count > maxKeys ? splitInner(inner) : null;
+    }
+
+    /**
+     * Moves the upper half of an overfull leaf into a new leaf. The first
+     * key of the new leaf becomes the separator.
+     */
+    private Split splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf(maxKeys);
+        int keep = leaf.count - leaf.count / 2;
+
+        right.count = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+        System.arraycopy(leaf.values, keep, right.values, 0, right.count);
+        Arrays.fill(leaf.keys, keep, leaf.count, null);
+        Arrays.fill(leaf.values, keep, leaf.count, null);
+        leaf.count = keep;
+
+        right.next = leaf.next;
+        leaf.next = right;
+        return new Split(right.keys[0], right);
+    }
+
+    /**
+     * Moves the upper half of an overfull inner node into a new node. The
+     * middle key moves up to the parent as the separator.
+     */
+    private Split splitInner(Inner inner) {
+        Inner right = new Inner(maxKeys);
+        int middle = inner.count / 2;
+        Object separator = inner.keys[middle];
+
+        right.count = inner.count - middle - 1;
+        System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, middle + 1, right.children, 0, right.count + 1);
+        Arrays.fill(inner.keys, middle, inner.count, null);
+        Arrays.fill(inner.children, middle + 1, inner.count + 1, null);
+        inner.count = middle;
+        return new Split(separator, right);
+    }
+
+    /**
+     * Deletes a key below a node, fixing children that end up with too
+     * few keys on the way back up.
+     * @return true if the key was found and deleted
+     */
+    private boolean delete(Node node, K key) {
+        int index = search(node, key);
+
+        if(node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if(index < 0)
+                return false;
+            removeAt(leaf.keys, leaf.count, index);
+            removeAt(leaf.values, leaf.count, index);
+            leaf.count--;
+            currentSize--;
+            modCount++;
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        index = childIndex(index);
+        if(!delete(inner.children[index], key))
+            return false;
+        if(inner.children[index].count < minKeys)
+            rebalance(inner, index);
+        return true;
+    }
+
+    /**
+     * Refills a child that has too few keys, by borrowing a key from a
+     * sibling that can spare one, or else by merging it with a sibling.
+     * @param parent, the parent of the child
+     * @param index, the position of the child in the parent
+     */
+    private void rebalance(Inner parent, int index) {
+        Node left = index > 0 ? parent.children[index - 1] : null;
+        Node right = index < parent.count ? parent.children[index + 1] : null;
+
+        if(left != null && left.count > minKeys)
+            borrowFromLeft(parent, index);
+        else if(right != null && right.count > minKeys)
+            borrowFromRight(parent, index);
+        else if(left != null)
+            merge(parent, index - 1);
+        else
+            merge(parent, index);
+    }
+
+    private void borrowFromLeft(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node left = parent.children[index - 1];
+
+        if(child instanceof Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf l = (Leaf) left;
+            insertAt(c.keys, c.count, 0, l.keys[l.count - 1]);
+            insertAt(c.values, c.count, 0, l.values[l.count - 1]);
+            c.count++;
+            l.keys[l.count - 1] = null;
+            l.values[l.count - 1] = null;
+            l.count--;
+            parent.keys[index - 1] = c.keys[0];
+        }
+        else {
+            // The separator comes down, the last key of left goes up
+            Inner c = (Inner) child;
+            Inner l = (Inner) left;
+            insertAt(c.keys, c.count, 0, parent.keys[index - 1]);
+            insertAt(c.children, c.count + 1, 0, l.children[l.count]);
+            c.count++;
+            parent.keys[index - 1] = l.keys[l.count - 1];
+            l.keys[l.count - 1] = null;
+            l.children[l.count] = null;
+            l.count--;
+        }
+    }
+
+    private void borrowFromRight(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node right = parent.children[index + 1];
+
+        if(child instanceof Leaf) {
+            Leaf c = (Leaf) child;
+            Leaf r = (Leaf) right;
+            c.keys[c.count] = r.keys[0];
+            c.values[c.count] = r.values[0];
+            c.count++;
+            removeAt(r.keys, r.count, 0);
+            removeAt(r.values, r.count, 0);
+            r.count--;
+            parent.keys[index] = r.keys[0];
+        }
+        else {
+            // The separator comes down, the first key of right goes up
+            Inner c = (Inner) child;
+            Inner r = (Inner) right;
+            c.keys[c.count] = parent.keys[index];
+            c.children[c.count + 1] = r.children[0];
+            c.count++;
+            parent.keys[index] = r.keys[0];
+            removeAt(r.keys, r.count, 0);
+            removeAt(r.children, r.count + 1, 0);
+            r.count--;
+        }
+    }
+
+    /**
+     * Merges the child after a position into the child at that position,
+     * and removes their separator from the parent.
+     * @param parent, the parent of both children
+     * @param index, the position of the left child
+     */
+    private void merge(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+
+        if(left instanceof Leaf) {
+            Leaf l = (Leaf) left;
+            Leaf r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.count, r.count);
+            System.arraycopy(r.values, 0, l.values, l.count, r.count);
+            l.count += r.count;
+            l.next = r.next;
+        }
+        else {
+            Inner l = (Inner) left;
+            Inner r = (Inner) right;
+            l.keys[l.count] = parent.keys[index];
+            System.arraycopy(r.keys, 0, l.keys, l.count + 1, r.count);
+            System.arraycopy(r.children, 0, l.children, l.count + 1, r.count + 1);
+            l.count += r.count + 1;
+        }
+        removeAt(parent.keys, parent.count, index);
+        removeAt(parent.children, parent.count + 1, index + 1);
+        parent.count--;
+    }
+
+    private Leaf findLeaf(K key) {
+        Node node = root;
+
+        while(node instanceof Inner)
+            node = ((Inner) node).children[childIndex(search(node, key))];
+        return (Leaf) node;
+    }
+
+    /**
+     * Binary search of the keys of a node.
+     * @return the position of key, or -(insertion point) - 1 if the node
+     * does not hold it
+     */
+    private int search(Node node, Object key) {
+        return Arrays.binarySearch(node.keys, 0, node.count, key);
+    }
+
+    // child to follow for a search result, keys equal to a separator
+    // are in the subtree to its right
+    private int childIndex(int index) {
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static void insertAt(Object[] array, int length, int index, Object obj) {
+        System.arraycopy(array, index, array, index + 1, length - index);
+        array[index] = obj;
+    }
+
+    private static void removeAt(Object[] array, int length, int index) {
+        System.arraycopy(array, index + 1, array, index, length - index - 1);
+        array[length - 1] = null;
+    }
+
+    private int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Builds a tree from sorted entries. Leaves are filled one after the
+     * other, and the tree only replaces the current one once every entry
+     * was checked.
+     */
+    private class Loader {
+        private final List<Node> leaves;
+        private Leaf leaf;
+        private Object lastKey;
+        private int count;
+
+        public Loader() {
+            if(currentSize != 0)
+                throw new IllegalStateException("The tree must be empty.");
+            this.leaves = new ArrayList<>();
+            this.leaf = null;
+            this.lastKey = null;
+            this.count = 0;
+        }
+
+        public void append(Object key, Object value) {
+            if(key == null)
+                throw new IllegalArgumentException("Keys can't be null.");
+            if(lastKey != null && compare(lastKey, key) >= 0)
+                throw new IllegalArgumentException("Keys must be sorted and unique.");
+
+            if(leaf == null || leaf.count == maxKeys) {
+                Leaf newLeaf = new Leaf(maxKeys);
+                if(leaf != null)
+                    leaf.next = newLeaf;
+                this.leaf = newLeaf;
+                leaves.add(newLeaf);
+            }
+            leaf.keys[leaf.count] = key;
+            leaf.values[leaf.count++] = value;
+            this.lastKey = key;
+            count++;
+        }
+
+        public void finish() {
+            if(leaves.isEmpty())
+                return;
+
+            // Share keys between the last two leaves if the last is too empty
+            if(leaves.size() > 1 && leaf.count < minKeys) {
+                Leaf prev = (Leaf) leaves.get(leaves.size() - 2);
+                int move = (prev.count - leaf.count) / 2;
+                System.arraycopy(leaf.keys, 0, leaf.keys, move, leaf.count);
+                System.arraycopy(leaf.values, 0, leaf.values, move, leaf.count);
+                System.arraycopy(prev.keys, prev.count - move, leaf.keys, 0, move);
+                System.arraycopy(prev.values, prev.count - move, leaf.values, 0, move);
+                Arrays.fill(prev.keys, prev.count - move, prev.count, null);
+                Arrays.fill(prev.values, prev.count - move, prev.count, null);
+                prev.count -= move;
+                leaf.count += move;
+            }
+
+            List<Node> level = leaves;
+            while(level.size() > 1)
+                level = buildLevel(level);
+            root = level.get(0);
+            currentSize = count;
+            modCount++;
+        }
+
+        /**
+         * Spreads a level of nodes evenly over as few parents as possible.
+         * @return the parents, in order
+         */
+        private List<Node> buildLevel(List<Node> nodes) {
+            int n = nodes.size();
+            int groups = (n + maxKeys) / (maxKeys + 1);
+            List<Node> parents = new ArrayList<>(groups);
+            int start = 0;
+
+            for(int g = 0; g < groups; g++) {
+                int end = (int) ((long) n * (g + 1) / groups);
+                Inner inner = new Inner(maxKeys);
+                for(int c = start; c < end; c++) {
+                    inner.children[c - start] = nodes.get(c);
+                    if(c > start)
+                        inner.keys[c - start - 1] = lowestKey(nodes.get(c));
+                }
+                inner.count = end - start - 1;
+                parents.add(inner);
+                start = end;
+            }
+            return parents;
+        }
+
+        private Object lowestKey(Node node) {
+            while(node instanceof Inner)
+                node = ((Inner) node).children[0];
+            return node.keys[0];
+        }
+    }
+
+    /**
+     * In order iterator over a range of keys, reading the leaves from left
+     * to right.
+     */
+    private class RangeIterator implements Iterator<Map.Entry<K, V>> {
+        private final K to;
+        private Leaf leaf;
+        private int index;
+        private K last;
+        private int expectedModCount;
+
+        public RangeIterator(K from, K to) {
+            this.to = to;
+            this.last = null;
+            seek(from, true);
+            this.expectedModCount = modCount;
+        }
+
+        // moves to the first key after key, or at key if inclusive
+        private void seek(K key, boolean inclusive) {
+            this.leaf = findLeaf(key);
+            int i = search(leaf, key);
+            this.index = i >= 0 ? (inclusive ? i : i + 1) : -i - 1;
+        }
+
+        /**
+         * Checks if there are more entries in the range
+         * @return true if there are more entries, false otherwise
+         */
+        public boolean hasNext() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            while(leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null && compare(leaf.keys[index], to) < 0;
+        }
+
+        /**
+         * Returns the next entry in ascending key order
+         * @return the next entry of the range
+         */
+        public Map.Entry<K, V> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            last = (K) leaf.keys[index];
+            return new AbstractMap.SimpleImmutableEntry<>(last, (V) leaf.values[index++]);
+        }
+
+        /**
+         * Removes the last returned entry from the tree.
+         */
+        public void remove() {
+            if(last == null)
+                throw new IllegalStateException();
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+
+            // Removing can move keys between leaves, so the position is found again
+            BPlusTree.this.remove(last);
+            seek(last, false);
+            this.last = null;
+            this.expectedModCount = modCount;
+        }
+    }
+
+    // Keys shared by both kinds of node, count is the number of keys
+    private static abstract class Node {
+        protected Object[] keys;
+        protected int count;
+    }
+
+    // Leaf holding up to maxKeys entries, plus one slot used while splitting
+    private static final class Leaf extends Node {
+        private Object[] values;
+        private Leaf next;
+
+        public Leaf(int maxKeys) {
+            this.keys = new Object[maxKeys + 1];
+            this.values = new Object[maxKeys + 1];
+            this.count = 0;
+            this.next = null;
+        }
+    }
+
+    // Inner node, children[i] holds the keys below keys[i]
+    private static final class Inner extends Node {
+        private Node[] children;
+
+        public Inner(int maxKeys) {
+            this.keys = new Object[maxKeys + 1];
+            this.children = new Node[maxKeys + 2];
+            this.count = 0;
+        }
+    }
+
+    // Result of splitting a node, the separator and the new right sibling
+    private static final class Split {
+        private final Object key;
+        private final Node right;
+
+        public Split(Object key, Node right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+}
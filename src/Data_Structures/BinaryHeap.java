@@ -1,63 +1,191 @@
 package Data_Structures;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
- * Implementation of a generic min heap. 
+ * Implementation of a generic min heap. Elements are ordered by a
+ * Comparator, or by their natural ordering if no Comparator is given.
+ * 
+ * Elements are stored directly in an Object array, next to a parallel
+ * array of sequence numbers that makes the heap stable: equal elements 
+ * are removed in first in first out order. Adding and removing elements
+ * does not allocate any objects.
+ * 
+ * By default every node has two children. The heap can also be built 
+ * with 4 or 8 children per node, which makes the tree shallower: a 
+ * removal then visits fewer levels, and the children of a node sit next
+ * to each other in the arrays, so they are read from the same cache 
+ * lines. Wider nodes pay off on large heaps with many removals.
+ * 
+ * The arrays double when the heap gets full, and are cut in half when 
+ * less than a quarter of them is used, but never below the initial 
+ * capacity. The gap between the two thresholds keeps a heap that 
+ * hovers around one size from resizing over and over.
  * @author Ruben Ramirez
  */
-public class BinaryHeap<E> implements Iterable<E> {
+public class BinaryHeap<E> implements HeapADT<E> {
     
-    private Node<E>[] heap;
+    private static final int DEFAULT_SIZE = 30;
+    
+    private Object[] heap;
+    private long[] order;
     private int currentSize;
     private int arraySize;
+    private int minSize;
     private long entryNumber;
+    // Counts changes that move elements, iterators use it to fail fast
+    private int modCount;
+    private final Comparator<? super E> comparator;
+    private final int arity;
+    private final int shift;
     
     public BinaryHeap() {
-        this.arraySize = 30;
-        this.heap = new Node[arraySize];
-        this.currentSize = 0;
-        this.entryNumber = 0;
+        this(DEFAULT_SIZE, null);
     }
     
     public BinaryHeap(int size) {
+        this(size, null);
+    }
+    
+    public BinaryHeap(Comparator<? super E> comparator) {
+        this(DEFAULT_SIZE, comparator);
+    }
+    
+    /**
+     * Creates a heap ordered by a Comparator.
+     * @param size, the initial capacity of the heap
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public BinaryHeap(int size, Comparator<? super E> comparator) {
+        this(size, 2, comparator);
+    }
+    
+    /**
+     * Creates a heap with a given number of children per node.
+     * @param size, the initial capacity of the heap
+     * @param arity, the number of children per node, 2, 4 or 8
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public BinaryHeap(int size, int arity, Comparator<? super E> comparator) {
+        if(size < 1)
+            throw new IllegalArgumentException("Size must be at least 1.");
+        if(arity != 2 && arity != 4 && arity != 8)
+            throw new IllegalArgumentException("Arity must be 2, 4 or 8.");
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
         this.arraySize = size;
-        this.heap = new Node[arraySize];
+        this.minSize = size;
+        this.heap = new Object[arraySize];
+        this.order = new long[arraySize];
         this.currentSize = 0;
         this.entryNumber = 0;
+        this.comparator = comparator;
+    }
+    
+    public BinaryHeap(Collection<? extends E> elements) {
+        this(elements, null);
+    }
+    
+    /**
+     * Creates a heap holding the elements of a collection. The heap is 
+     * built bottom up in O(n) time instead of adding the elements one 
+     * at a time. Equal elements keep the order of the collection.
+     * @param elements, the elements to be added to the heap
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public BinaryHeap(Collection<? extends E> elements, Comparator<? super E> comparator) {
+        this(Math.max(elements.size(), 1), 2, comparator);
+        this.minSize = Math.min(arraySize, DEFAULT_SIZE);
+        appendAll(elements.toArray());
+    }
+    
+    /**
+     * Adds every element of a collection to the heap. The array is grown 
+     * once, and when the batch is large compared to the heap, the heap 
+     * is rebuilt bottom up in O(n) time.
+     * @param elements, the elements to be added to the heap
+     * @return true if the heap changed
+     */
+    public boolean addAll(Collection<? extends E> elements) {
+        return appendAll(elements.toArray());
+    }
+    
+    /**
+     * Adds every element of an array to the heap. The array is grown 
+     * once, and when the batch is large compared to the heap, the heap 
+     * is rebuilt bottom up in O(n) time.
+     * @param elements, the elements to be added to the heap
+     * @return true if the heap changed
+     */
+    public boolean addAll(E[] elements) {
+        return appendAll(elements);
     }
     
     /**
-     * Adds a new object to the max heap
+     * Adds a new object to the heap
      * @param obj, the object to be added to the heap
      * @return true if the object was added, false otherwise
      */
     public boolean add(E obj) {
         if(isFull()) 
-            resize();
-        heap[currentSize++] = new Node<E>(obj);
-        trickleUp();
+            resize(arraySize * 2);
+        heap[currentSize] = obj;
+        order[currentSize] = entryNumber++;
+        trickleUp(currentSize++);
         return true;
     }
     
     /**
-     * Removes and returns the maximum element in the heap
-     * @return the maximum element, null if heap is empty
+     * Removes and returns the minimum element in the heap
+     * @return the minimum element, null if heap is empty
      */
     public E remove() {
-        Node<E> tmp;
+        E tmp;
         
         if(isEmpty())
             return null;
-        if(currentSize == 1) {
-            tmp = heap[0];
-            clear();
-            return tmp.data;
+        tmp = (E) heap[0];
+        
+        // Move the last element to the top and clear its old slot
+        modCount++;
+        currentSize--;
+        heap[0] = heap[currentSize];
+        order[0] = order[currentSize];
+        heap[currentSize] = null;
+        
+        if(currentSize > 0)
+            trickleDown(0);
+        shrink();
+        return tmp;
+    }
+    
+    /**
+     * Removes the minimum element and adds a new object in a single pass
+     * down the heap. Cheaper than calling remove() and then add().
+     * @param obj, the object to be added to the heap
+     * @return the minimum element before the call, null if the heap was
+     * empty
+     */
+    public E replace(E obj) {
+        E tmp;
+        
+        if(isEmpty()) {
+            add(obj);
+            return null;
         }
-        tmp = heap[0];
-        heap[0] = heap[--currentSize];
-        trickleDown();
-        return tmp.data;
+        tmp = (E) heap[0];
+        heap[0] = obj;
+        order[0] = entryNumber++;
+        trickleDown(0);
+        return tmp;
     }
     
     /**
@@ -67,7 +195,7 @@ public class BinaryHeap<E> implements Iterable<E> {
     public E peek() {
         if(isEmpty())
             return null;
-        return heap[0].data;
+        return (E) heap[0];
     }
     
     /**
@@ -81,80 +209,207 @@ public class BinaryHeap<E> implements Iterable<E> {
         
         // Search the array for a match
         for(int i = 0; i < currentSize; i++) {
-            if(((Comparable<Node<E>>)heap[i]).compareTo(new Node<E>(obj)) == 0)
+            if(compareValues(obj, heap[i]) == 0)
                 return true;
         }
         return false;
     }
     
     /**
-     * Private method that performs trickle down operations after
-     * a deletion from the heap. Restores heap order structure.
+     * Returns the number of children per node
+     * @return the arity of the heap
      */
-    private void trickleDown() {
-        int index = 0;
-        int left = (index << 1) + 1;
-        int right = (index << 1) + 2;
-        Node<E> tmp;
+    public int arity() {
+        return this.arity;
+    }
+    
+    /**
+     * Returns the Comparator used to order the heap
+     * @return the Comparator, null if the natural ordering is used
+     */
+    public Comparator<? super E> comparator() {
+        return this.comparator;
+    }
+    
+    /**
+     * Appends a batch of elements to the heap array and restores heap 
+     * order, either by moving each new element up, or by Floyd's bottom 
+     * up heapify when that is cheaper.
+     * @param elements, the elements to be added
+     * @return true if any element was added
+     */
+    private boolean appendAll(Object[] elements) {
+        int oldSize = currentSize;
+        int count = elements.length;
+        
+        if(count == 0)
+            return false;
+        modCount++;
+        if(currentSize + count > arraySize)
+            resize(Math.max(currentSize + count, arraySize * 2));
         
-        if(left > currentSize || right > currentSize)
-            return;
+        for(int i = 0; i < count; i++) {
+            heap[currentSize] = elements[i];
+            order[currentSize] = entryNumber++;
+            placed(elements[i], currentSize++);
+        }
         
-        while(((Comparable<Node<E>>)heap[index]).compareTo(heap[left]) > 0 ||
-              (((Comparable<Node<E>>)heap[index]).compareTo(heap[right]) > 0)) {
+        // Adding one at a time costs about count * log(size) comparisons
+        if((long) count * (32 - Integer.numberOfLeadingZeros(currentSize)) < currentSize) {
+            for(int i = oldSize; i < currentSize; i++)
+                trickleUp(i);
+        }
+        else
+            heapify();
+        return true;
+    }
+    
+    /**
+     * Restores heap order over the whole array in O(n) time by moving 
+     * every parent down, starting from the last one.
+     */
+    private void heapify() {
+        for(int i = (currentSize - 2) >> shift; i >= 0; i--)
+            trickleDown(i);
+    }
+    
+    /**
+     * Removes the element stored at a position of the heap array. The
+     * last element takes its place and gets moved up or down.
+     * @param index, the position of the element to be removed
+     * @return the removed element
+     */
+    E removeAt(int index) {
+        E tmp = (E) heap[index];
+        
+        modCount++;
+        currentSize--;
+        if(index != currentSize) {
+            heap[index] = heap[currentSize];
+            order[index] = order[currentSize];
+            heap[currentSize] = null;
+            if(trickleUp(index) == index)
+                trickleDown(index);
+        }
+        else
+            heap[currentSize] = null;
+        shrink();
+        return tmp;
+    }
+    
+    /**
+     * Called every time an element is written to a position of the heap
+     * array. Subclasses override it to keep track of element positions.
+     * @param obj, the element that was moved
+     * @param index, the new position of the element
+     */
+    void placed(Object obj, int index) {
+    }
+    
+    /**
+     * Method that performs trickle down operations after
+     * a deletion from the heap. Restores heap order structure.
+     * The element is held aside while smaller children move up into
+     * the hole, and is only written once at its final position.
+     * @param index, the position of the element to be moved down
+     * @return the final position of the element
+     */
+    int trickleDown(int index) {
+        Object obj = heap[index];
+        long seq = order[index];
+        int lastParent = (currentSize - 2) >> shift;
+        int child, best, end;
+        
+        modCount++;
+        // Only nodes up to the parent of the last element have children
+        while(index <= lastParent) {
+            best = (index << shift) + 1;
+            end = Math.min(best + arity, currentSize);
             
-            // Left child value is larger than the right child value
-            if(((Comparable<Node<E>>)heap[left]).compareTo(heap[right]) < 0) {
-                tmp = heap[index];
-                heap[index] = heap[left];
-                heap[left] = tmp;
-                index = left;
-            }
-            // Left child value is larger than the right child value 
-            else {
-                tmp = heap[index];
-                heap[index] = heap[right];
-                heap[right] = tmp;
-                index = right;
+            // Pick the smallest of the children
+            for(child = best + 1; child < end; child++) {
+                if(compare(heap[child], order[child], heap[best], order[best]) < 0)
+                    best = child;
             }
-            left = (index << 1) + 1;
-            right = (index << 1) + 2;
-            
-            if(left > currentSize || right > currentSize)
-                return;
+            if(compare(obj, seq, heap[best], order[best]) <= 0)
+                break;
+            heap[index] = heap[best];
+            order[index] = order[best];
+            placed(heap[index], index);
+            index = best;
         }
+        heap[index] = obj;
+        order[index] = seq;
+        placed(obj, index);
+        return index;
     }
     
     /**
-     * Private method that performs trickle down operations after
+     * Method that performs trickle up operations after
      * an addition into the heap. Restores heap order structure.
+     * @param index, the position of the element to be moved up
+     * @return the final position of the element
      */
-    private void trickleUp() {
-        int index = currentSize - 1;
-        int parent = (index - 1) >> 1;
-        Node<E> tmp;
+    int trickleUp(int index) {
+        Object obj = heap[index];
+        long seq = order[index];
+        int parent;
         
-        if(parent < 0 || index < 0)
-                return;
-        
-        while(((Comparable<E>)heap[index]).compareTo((E) heap[parent]) < 0) {
-            tmp = heap[parent];
-            heap[parent] = heap[index];
-            heap[index] = tmp;
+        modCount++;
+        while(index > 0) {
+            parent = (index - 1) >> shift;
+            if(compare(obj, seq, heap[parent], order[parent]) >= 0)
+                break;
+            heap[index] = heap[parent];
+            order[index] = order[parent];
+            placed(heap[index], index);
             index = parent;
-            parent = (index - 1) >> 1;
-            
-            if(parent < 0 || index < 0)
-                return;
         }
+        heap[index] = obj;
+        order[index] = seq;
+        placed(obj, index);
+        return index;
     }
     
     /**
-     * Resets the heap to an empty position
+     * Compares two elements. Equal elements are ordered by their sequence
+     * numbers, so the one added first comes first.
+     * @return a negative number if a comes before b, positive otherwise
+     */
+    private int compare(Object a, long aOrder, Object b, long bOrder) {
+        int cmp = compareValues(a, b);
+        
+        if(cmp != 0)
+            return cmp;
+        return aOrder < bOrder ? -1 : (aOrder == bOrder ? 0 : 1);
+    }
+    
+    /**
+     * Compares two elements with the Comparator, or with their natural
+     * ordering if the heap has no Comparator.
+     */
+    private int compareValues(Object a, Object b) {
+        if(comparator == null)
+            return ((Comparable<? super E>) a).compareTo((E) b);
+        return comparator.compare((E) a, (E) b);
+    }
+    
+    /**
+     * Resets the heap to an empty position. The arrays are kept and only
+     * the used slots are cleared, call trimToSize() to release them.
      */
     public void clear() {
-        this.heap = new Node[arraySize];
+        Arrays.fill(heap, 0, currentSize, null);
         this.currentSize = 0;
+        modCount++;
+    }
+    
+    /**
+     * Shrinks the heap arrays to the number of elements in the heap.
+     */
+    public void trimToSize() {
+        if(arraySize > currentSize)
+            resize(Math.max(currentSize, 1));
     }
     
     /**
@@ -182,16 +437,28 @@ public class BinaryHeap<E> implements Iterable<E> {
     }
     
     /**
-     * Doubles the size of the heap if it gets full.
+     * Cuts the heap arrays in half once less than a quarter of them is 
+     * used, down to the initial capacity.
      */
-    private void resize() {
-        this.arraySize = arraySize * 2;
-        Node<E>[] newArray = new Node[arraySize];
+    private void shrink() {
+        if(currentSize < arraySize >> 2 && arraySize > minSize)
+            resize(Math.max(arraySize >> 1, minSize));
+    }
+    
+    /**
+     * Copies the heap into arrays of a new capacity.
+     * @param newSize, the new capacity of the heap
+     */
+    private void resize(int newSize) {
+        this.arraySize = newSize;
+        Object[] newArray = new Object[arraySize];
+        long[] newOrder = new long[arraySize];
         
         // Transfer elements into new array
-        for(int i = 0; i < currentSize; i++)
-            newArray[i] = heap[i];
+        System.arraycopy(heap, 0, newArray, 0, currentSize);
+        System.arraycopy(order, 0, newOrder, 0, currentSize);
         heap = newArray;
+        order = newOrder;
     }
 
     /**
@@ -203,43 +470,20 @@ public class BinaryHeap<E> implements Iterable<E> {
         return new HeapIterator();
     }
     
-    /**
-     * Node class which serves as a wrapper class. Holds a long value which
-     * serves as a way to make the heap stable. Equal elements get sorted based
-     * on first in first out convention. Implements the compareTo method in the 
-     * Comparable interface.
-     */
-    private class Node<E> implements Comparable<Node<E>> {
-        private long order;
-        private E data;
-        
-        public Node(E data) {
-            this.order = entryNumber++;
-            this.data = data;
-        }
-        
-        public int compareTo(Node<E> node) {
-            if(((Comparable<E>)data).compareTo(node.data) == 0)
-                return (int) (order - node.order);
-            return ((Comparable<E>)data).compareTo(node.data);
-        }
-    }
-    
     /**
      * Class constructs an iterator to be used to traverse the elements
      * in the heap. Implements the methods in the Iterator interface. The 
-     * remove() method is not implemented. 
+     * remove() method is not implemented. Throws 
+     * ConcurrentModificationException if the heap is changed while it is 
+     * being traversed.
      */
-    private class HeapIterator<E> implements Iterator<E> {
-        private Node<E>[] array;
+    private class HeapIterator implements Iterator<E> {
         private int index;
+        private final int expectedModCount;
         
         public HeapIterator() {
-            this.array = new Node[currentSize];
             this.index = 0;
-            // Populate new temporary array
-            for(int i = 0; i < currentSize; i++) 
-                array[i] = (Node<E>) heap[i];
+            this.expectedModCount = modCount;
         }
 
         /**
@@ -247,7 +491,7 @@ public class BinaryHeap<E> implements Iterable<E> {
          * @return true if there are more elements, false otherwise
          */
         public boolean hasNext() {
-            return index < array.length;
+            return index < currentSize;
         }
 
         /**
@@ -256,7 +500,11 @@ public class BinaryHeap<E> implements Iterable<E> {
          * @return E, the next element in the heap
          */
         public E next() {
-            return array[index++].data;
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+            return (E) heap[index++];
         }
 
         /**
@@ -0,0 +1,597 @@
+package Data_Structures;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generic bounded cache built on top of HashTable. The cache holds at most
+ * a fixed capacity, counted in entries or in an estimated weight such as
+ * bytes, and evicts entries once the capacity is exceeded. get() and put()
+ * run in constant time.
+ *
+ * The eviction policy is chosen when the cache is created:
+ *   LRU      - evicts the least recently used entry.
+ *   LFU      - evicts the least frequently used entry, ties are broken by
+ *              recency.
+ *   TINY_LFU - W-TinyLFU. New entries go through a small LRU window and are
+ *              only admitted into the main segmented LRU if a frequency
+ *              sketch says they are used more often than the entry they
+ *              would replace.
+ *
+ * Replacing the value of a cached key counts as a use of the key, so the
+ * key keeps its access count and its place in the policy.
+ *
+ * Entries can optionally expire a fixed time after they were written.
+ * Expired entries are dropped the next time they are read. Hit, miss and
+ * eviction counters are kept so caches can be sized from real data.
+ *
+ * Like HashTable, keys must implement Comparable. The cache is not thread
+ * safe.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the cache
+ * @param <V> the type of values in the cache
+ */
+
+public class BoundedCache<K, V> {
+
+    /**
+     * Eviction policies supported by the cache.
+     */
+    public enum Policy { LRU, LFU, TINY_LFU }
+
+    /**
+     * Computes the weight of an entry, for example its estimated size in
+     * bytes. Weights must not change while an entry is in the cache.
+     * @param <K> the type of keys in the cache
+     * @param <V> the type of values in the cache
+     */
+    public interface Weigher<K, V> {
+        public int weigh(K key, V value);
+    }
+
+    private final HashTable<K, Entry<K, V>> index;
+    private final EvictionPolicy<K, V> policy;
+    private final Weigher<K, V> weigher;
+    private final long capacity;
+    private final long timeToLive;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public BoundedCache(long capacity, Policy policy) {
+        this(capacity, policy, 0, TimeUnit.NANOSECONDS, null);
+    }
+
+    public BoundedCache(long capacity, Policy policy, long timeToLive, TimeUnit unit) {
+        this(capacity, policy, timeToLive, unit, null);
+    }
+
+    /**
+     * Creates a bounded cache.
+     * @param capacity, the maximum total weight of the cache. Without a
+     * weigher every entry weighs 1, so this is the number of entries.
+     * @param policy, the eviction policy.
+     * @param timeToLive, how long an entry stays valid after it is written,
+     * 0 if entries never expire.
+     * @param unit, the time unit of timeToLive.
+     * @param weigher, computes entry weights, null to count entries.
+     */
+    public BoundedCache(long capacity, Policy policy, long timeToLive, TimeUnit unit,
+                        Weigher<K, V> weigher) {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        if(timeToLive < 0)
+            throw new IllegalArgumentException("Time to live can't be negative.");
+        if(policy == null)
+            throw new IllegalArgumentException("Policy can't be null.");
+
+        this.capacity = capacity;
+        this.timeToLive = unit.toNanos(timeToLive);
+        this.weigher = weigher;
+        this.index = new HashTable<>((int) Math.min(capacity, 1 << 16));
+
+        switch(policy) {
+            case LRU:
+                this.policy = new LruPolicy<>();
+                break;
+            case LFU:
+                this.policy = new LfuPolicy<>();
+                break;
+            default:
+                // Weighted caches can't tell their entry count up front
+                this.policy = new TinyLfuPolicy<>(capacity, weigher == null ? capacity : 0);
+        }
+    }
+
+    /**
+     * Returns the value cached for a key and records the access.
+     * @param key, the key associated with the value.
+     * @return the cached value, null if the key is not cached or expired.
+     */
+    public V get(K key) {
+        Entry<K, V> entry = index.getValue(key);
+
+        if(entry != null && isExpired(entry)) {
+            removeEntry(entry);
+            entry = null;
+        }
+        if(entry == null) {
+            this.missCount++;
+            return null;
+        }
+        this.hitCount++;
+        policy.onAccess(entry);
+        return entry.value;
+    }
+
+    /**
+     * Adds a value to the cache, replacing any value cached for the same
+     * key. A replaced value counts as a use of the key. Entries get
+     * evicted until the cache fits its capacity again.
+     * @param key, the key value to be cached.
+     * @param value, the value to be cached.
+     */
+    public void put(K key, V value) {
+        Entry<K, V> entry = index.getValue(key);
+        int entryWeight = weigher == null ? 1 : weigher.weigh(key, value);
+        long writeTime = timeToLive == 0 ? 0 : System.nanoTime();
+
+        if(entryWeight < 0)
+            throw new IllegalArgumentException("Weight can't be negative.");
+        if(entry != null) {
+            // Update in place so the entry keeps its frequency and segment
+            this.weight += entryWeight - entry.weight;
+            entry.list.reweigh(entry, entryWeight);
+            entry.value = value;
+            entry.writeTime = writeTime;
+            policy.onAccess(entry);
+        }
+        else {
+            entry = new Entry<>(key, value, entryWeight, writeTime);
+            index.add(key, entry);
+            policy.onInsert(entry);
+            this.weight += entryWeight;
+        }
+
+        // Evict until the cache is back within its capacity
+        while(weight > capacity) {
+            Entry<K, V> victim = policy.evict();
+            index.remove(victim.key);
+            this.weight -= victim.weight;
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * Removes a key from the cache.
+     * @param key, the key that is going to be removed.
+     * @return true if an entry got removed, false otherwise.
+     */
+    public boolean remove(K key) {
+        Entry<K, V> entry = index.getValue(key);
+
+        if(entry == null)
+            return false;
+        removeEntry(entry);
+        return true;
+    }
+
+    /**
+     * Returns the number of entries currently in the cache, including
+     * expired entries that have not been read since they expired.
+     * @return the number of entries in the cache.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Test whether the cache is empty.
+     * @return true if the cache is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Returns the total weight of the entries in the cache.
+     * @return the current weight of the cache.
+     */
+    public long weight() {
+        return this.weight;
+    }
+
+    /**
+     * Returns the maximum total weight of the cache.
+     * @return the capacity of the cache.
+     */
+    public long capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of get() calls that found a cached value.
+     * @return the hit count.
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of get() calls that did not find a cached value.
+     * @return the miss count.
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within capacity.
+     * @return the eviction count.
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Returns the ratio of hits to get() calls.
+     * @return the hit rate, 0 if get() was never called.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public void resetStats() {
+        this.hitCount = 0;
+        this.missCount = 0;
+        this.evictionCount = 0;
+    }
+
+    private boolean isExpired(Entry<K, V> entry) {
+        return timeToLive != 0 && System.nanoTime() - entry.writeTime >= timeToLive;
+    }
+
+    private void removeEntry(Entry<K, V> entry) {
+        index.remove(entry.key);
+        policy.onRemove(entry);
+        this.weight -= entry.weight;
+    }
+
+    /**
+     * Entry inner class. Holds a cached key and value together with the
+     * links used by the eviction policies.
+     */
+    private static final class Entry<K, V> {
+        private final K key;
+        private V value;
+        private int weight;
+        private long writeTime;
+        private Entry<K, V> prev, next;
+        private EntryList<K, V> list;
+
+        public Entry(K key, V value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * Doubly linked list of entries, ordered from least to most recently
+     * used. Entries are linked in place, so moving one is constant time.
+     */
+    private static class EntryList<K, V> {
+        private final Entry<K, V> head;
+        private long weight;
+
+        public EntryList() {
+            this.head = new Entry<>(null, null, 0, 0);
+            head.prev = head.next = head;
+            this.weight = 0;
+        }
+
+        public boolean isEmpty() {
+            return head.next == head;
+        }
+
+        public Entry<K, V> first() {
+            return head.next;
+        }
+
+        public void addLast(Entry<K, V> entry) {
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+            entry.list = this;
+            this.weight += entry.weight;
+        }
+
+        public void remove(Entry<K, V> entry) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = entry.next = null;
+            entry.list = null;
+            this.weight -= entry.weight;
+        }
+
+        public void moveToLast(Entry<K, V> entry) {
+            remove(entry);
+            addLast(entry);
+        }
+
+        // Changes the weight of an entry in the list
+        public void reweigh(Entry<K, V> entry, int weight) {
+            this.weight += weight - entry.weight;
+            entry.weight = weight;
+        }
+    }
+
+    /**
+     * Base class of the eviction policies. The cache reports every insert,
+     * access and removal, and asks for a victim whenever it is over its
+     * capacity.
+     */
+    private abstract static class EvictionPolicy<K, V> {
+        public abstract void onInsert(Entry<K, V> entry);
+        public abstract void onAccess(Entry<K, V> entry);
+        public abstract void onRemove(Entry<K, V> entry);
+
+        // Unlinks and returns the entry to be evicted
+        public abstract Entry<K, V> evict();
+    }
+
+    // Least recently used policy
+    private static final class LruPolicy<K, V> extends EvictionPolicy<K, V> {
+        private final EntryList<K, V> list = new EntryList<>();
+
+        public void onInsert(Entry<K, V> entry) {
+            list.addLast(entry);
+        }
+
+        public void onAccess(Entry<K, V> entry) {
+            list.moveToLast(entry);
+        }
+
+        public void onRemove(Entry<K, V> entry) {
+            list.remove(entry);
+        }
+
+        public Entry<K, V> evict() {
+            Entry<K, V> victim = list.first();
+            list.remove(victim);
+            return victim;
+        }
+    }
+
+    /**
+     * Least frequently used policy. Entries sit in one list per access
+     * count, and the lists are kept in a linked list ordered by count, so
+     * an access only moves an entry to the neighbouring list.
+     */
+    private static final class LfuPolicy<K, V> extends EvictionPolicy<K, V> {
+        private final FrequencyList<K, V> lists = new FrequencyList<>(0);
+
+        public LfuPolicy() {
+            lists.prevList = lists.nextList = lists;
+        }
+
+        public void onInsert(Entry<K, V> entry) {
+            FrequencyList<K, V> first = lists.nextList;
+            if(first.frequency != 1)
+                first = insertAfter(lists, 1);
+            first.addLast(entry);
+        }
+
+        public void onAccess(Entry<K, V> entry) {
+            FrequencyList<K, V> current = (FrequencyList<K, V>) entry.list;
+            FrequencyList<K, V> next = current.nextList;
+
+            if(next.frequency != current.frequency + 1)
+                next = insertAfter(current, current.frequency + 1);
+            current.remove(entry);
+            next.addLast(entry);
+            unlinkIfEmpty(current);
+        }
+
+        public void onRemove(Entry<K, V> entry) {
+            FrequencyList<K, V> current = (FrequencyList<K, V>) entry.list;
+            current.remove(entry);
+            unlinkIfEmpty(current);
+        }
+
+        public Entry<K, V> evict() {
+            FrequencyList<K, V> least = lists.nextList;
+            Entry<K, V> victim = least.first();
+            least.remove(victim);
+            unlinkIfEmpty(least);
+            return victim;
+        }
+
+        private FrequencyList<K, V> insertAfter(FrequencyList<K, V> list, int frequency) {
+            FrequencyList<K, V> newList = new FrequencyList<>(frequency);
+            newList.prevList = list;
+            newList.nextList = list.nextList;
+            list.nextList.prevList = newList;
+            list.nextList = newList;
+            return newList;
+        }
+
+        private void unlinkIfEmpty(FrequencyList<K, V> list) {
+            if(list.isEmpty()) {
+                list.prevList.nextList = list.nextList;
+                list.nextList.prevList = list.prevList;
+            }
+        }
+    }
+
+    // Entry list holding every entry with the same access count
+    private static final class FrequencyList<K, V> extends EntryList<K, V> {
+        private final int frequency;
+        private FrequencyList<K, V> prevList, nextList;
+
+        public FrequencyList(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    /**
+     * W-TinyLFU policy. About 1% of the capacity is an LRU window for new
+     * entries, the rest is a segmented LRU split into a probation and a
+     * protected segment. An entry leaving the window only stays if it is
+     * used more often than the probation entry that would be evicted.
+     *
+     * The frequency sketch needs about one counter per entry. Caches that
+     * count entries size it by their capacity. Weighted caches don't know
+     * how many entries fit, so their sketch grows with the entry count.
+     */
+    private static final class TinyLfuPolicy<K, V> extends EvictionPolicy<K, V> {
+        private final EntryList<K, V> window = new EntryList<>();
+        private final EntryList<K, V> probation = new EntryList<>();
+        private final EntryList<K, V> protect = new EntryList<>();
+        private final FrequencySketch sketch;
+        private final long windowMax;
+        private final long protectedMax;
+        private int numEntries;
+
+        public TinyLfuPolicy(long capacity, long expectedEntries) {
+            this.windowMax = Math.max(1, capacity / 100);
+            this.protectedMax = (capacity - windowMax) * 4 / 5;
+            this.sketch = new FrequencySketch((int) Math.min(expectedEntries,
+                                                             FrequencySketch.MAX_WIDTH));
+            this.numEntries = 0;
+        }
+
+        public void onInsert(Entry<K, V> entry) {
+            sketch.ensureCapacity(++numEntries);
+            sketch.increment(entry.key.hashCode());
+            window.addLast(entry);
+        }
+
+        public void onAccess(Entry<K, V> entry) {
+            sketch.increment(entry.key.hashCode());
+
+            if(entry.list == probation) {
+                // Promote, and demote protected entries that no longer fit
+                probation.remove(entry);
+                protect.addLast(entry);
+                while(protect.weight > protectedMax && protect.first() != entry)
+                    demote(protect.first());
+            }
+            else
+                entry.list.moveToLast(entry);
+        }
+
+        public void onRemove(Entry<K, V> entry) {
+            entry.list.remove(entry);
+            numEntries--;
+        }
+
+        public Entry<K, V> evict() {
+            Entry<K, V> candidate = null;
+            Entry<K, V> victim;
+
+            // Entries overflowing the window become admission candidates
+            while(window.weight > windowMax && !window.isEmpty()) {
+                candidate = window.first();
+                window.remove(candidate);
+                probation.addLast(candidate);
+            }
+
+            if(!probation.isEmpty())
+                victim = probation.first();
+            else if(!protect.isEmpty())
+                victim = protect.first();
+            else
+                victim = window.first();
+
+            // The candidate is only admitted if it is used more often
+            if(candidate != null && candidate != victim &&
+               sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode()))
+                victim = candidate;
+
+            victim.list.remove(victim);
+            numEntries--;
+            return victim;
+        }
+
+        private void demote(Entry<K, V> entry) {
+            protect.remove(entry);
+            probation.addLast(entry);
+        }
+    }
+
+    /**
+     * Count-min sketch that estimates how often a key was seen. Counters
+     * saturate at 15 and are all halved periodically so old popularity
+     * fades out.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_WIDTH = 1 << 22;
+        private static final int[] SEEDS = { 0x97cb3127, 0x9e3779b9, 0x7f4a7c15, 0x85ebca6b };
+
+        private byte[] counters;
+        private int mask;
+        private int sampleSize;
+        private int additions;
+
+        public FrequencySketch(int expectedEntries) {
+            allocate(expectedEntries);
+        }
+
+        // Grows the sketch once there are more entries than counters per
+        // row. The counts start over, as they would after a few resets.
+        public void ensureCapacity(int expectedEntries) {
+            if(expectedEntries > mask + 1 && mask + 1 < MAX_WIDTH)
+                allocate(Math.min(expectedEntries, MAX_WIDTH));
+        }
+
+        private void allocate(int expectedEntries) {
+            int width = 16;
+            while(width < expectedEntries)
+                width <<= 1;
+            this.counters = new byte[width * DEPTH];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+            this.additions = 0;
+        }
+
+        public void increment(int hashCode) {
+            for(int i = 0; i < DEPTH; i++) {
+                int slot = slot(hashCode, i);
+                if(counters[slot] < 15)
+                    counters[slot]++;
+            }
+            if(++additions == sampleSize)
+                reset();
+        }
+
+        public int frequency(int hashCode) {
+            int min = 15;
+            for(int i = 0; i < DEPTH; i++)
+                min = Math.min(min, counters[slot(hashCode, i)]);
+            return min;
+        }
+
+        private int slot(int hashCode, int row) {
+            int h = (hashCode ^ SEEDS[row]) * 0x85ebca6b;
+            h ^= h >>> 15;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        private void reset() {
+            for(int i = 0; i < counters.length; i++)
+                counters[i] >>= 1;
+            this.additions /= 2;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package Data_Structures;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe generic Hash Table with the same methods as HashTable.
+ *
+ * The table is split into lock striped segments, each one being a small
+ * chained hash table of its own. getValue() never takes a lock: nodes are
+ * published through volatile writes and the chain links of a node never
+ * change once it is reachable, so readers always see a consistent chain.
+ * add() and remove() only lock the segment the key hashes to, and every
+ * segment grows on its own, so resizes in different segments run in
+ * parallel and never block readers.
+ *
+ * Keys are matched with equals(). Null keys and values are not allowed.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the table
+ * @param <V> the type of values in the table
+ */
+
+public class ConcurrentHashTable<K, V> {
+
+    private static final int DEFAULT_CONCURRENCY = 32;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+
+    public ConcurrentHashTable(int maxSize) {
+        this(maxSize, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Creates a table with a given number of lock stripes.
+     * @param maxSize, the expected number of elements.
+     * @param concurrencyLevel, the expected number of concurrent writers,
+     * rounded up to a power of two.
+     */
+    public ConcurrentHashTable(int maxSize, int concurrencyLevel) {
+        if(maxSize < 0 || concurrencyLevel < 1)
+            throw new IllegalArgumentException("Sizes must be positive.");
+
+        int numSegments = 1;
+        int shift = 0;
+        while(numSegments < concurrencyLevel && numSegments < MAX_SEGMENTS) {
+            numSegments <<= 1;
+            shift++;
+        }
+        this.segmentShift = 32 - shift;
+        this.segmentMask = numSegments - 1;
+        this.segments = new Segment[numSegments];
+
+        int perSegment = maxSize / numSegments + 1;
+        for(int i = 0; i < numSegments; i++)
+            segments[i] = new Segment<>(perSegment);
+    }
+
+    /**
+     * Adds an object containing a key and a value to the table. An existing
+     * value stored under the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the object is successfully added.
+     */
+    public boolean add(K key, V value) {
+        if(key == null || value == null)
+            throw new IllegalArgumentException("Keys and values can't be null.");
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value);
+        return true;
+    }
+
+    /**
+     * Removes an object from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if an object got removed, false otherwise.
+     */
+    public boolean remove(K key) {
+        if(key == null)
+            throw new IllegalArgumentException("Keys can't be null.");
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Returns a value associated with a given key. Does not lock.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, null
+     * if there is no element with the given key.
+     */
+    public V getValue(K key) {
+        if(key == null)
+            throw new IllegalArgumentException("Keys can't be null.");
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Returns the number of Objects currently in the hash table. While
+     * other threads are modifying the table the result is an estimate.
+     * @return the number of Objects currently in the hash table.
+     */
+    public int size() {
+        long sum = 0;
+        for(int i = 0; i < segments.length; i++)
+            sum += segments[i].count;
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Test whether the hash table is empty.
+     * @return true if the table is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        for(int i = 0; i < segments.length; i++) {
+            if(segments[i].count != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mixes the bits of a key's hash code so both the segment and the
+     * bucket index get well distributed bits.
+     * @param key, the key that is to be hashed.
+     * @return the mixed hash value.
+     */
+    private static int hash(Object key) {
+        return HashStrategy.mix(key.hashCode());
+    }
+
+    // Segments are selected with the high bits of the hash, buckets
+    // inside a segment with the low bits
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Segment inner class. A chained hash table guarded by its own lock.
+     * Writers hold the lock, readers only follow volatile references.
+     */
+    private static final class Segment<K, V> extends ReentrantLock {
+        private volatile AtomicReferenceArray<Node<K, V>> table;
+        private volatile int count;
+        private int threshold;
+
+        public Segment(int maxSize) {
+            int size = 2;
+            while(size * 3 / 4 < maxSize && size < 1 << 30)
+                size <<= 1;
+            setTable(new AtomicReferenceArray<Node<K, V>>(size));
+            this.count = 0;
+        }
+
+        public V get(Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            Node<K, V> node = tab.get(hash & (tab.length() - 1));
+
+            while(node != null) {
+                if(node.hash == hash && (node.key == key || key.equals(node.key)))
+                    return node.value;
+                node = node.next;
+            }
+            return null;
+        }
+
+        public void put(K key, int hash, V value) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Node<K, V> first = tab.get(index);
+
+                // Replace the value if the key is already in the chain
+                for(Node<K, V> node = first; node != null; node = node.next) {
+                    if(node.hash == hash && (node.key == key || key.equals(node.key))) {
+                        node.value = value;
+                        return;
+                    }
+                }
+
+                // Only a new key can push the segment over its threshold
+                if(count + 1 > threshold) {
+                    rehash();
+                    tab = table;
+                    index = hash & (tab.length() - 1);
+                    first = tab.get(index);
+                }
+                tab.set(index, new Node<>(hash, key, value, first));
+                count = count + 1;
+            }
+            finally {
+                unlock();
+            }
+        }
+
+        public boolean remove(Object key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int index = hash & (tab.length() - 1);
+                Node<K, V> first = tab.get(index);
+                Node<K, V> node = first;
+
+                while(node != null &&
+                      (node.hash != hash || (node.key != key && !key.equals(node.key))))
+                    node = node.next;
+                if(node == null)
+                    return false;
+
+                // Links are final, so the nodes in front of the removed
+                // node get copied onto the rest of the chain
+                Node<K, V> newFirst = node.next;
+                for(Node<K, V> p = first; p != node; p = p.next)
+                    newFirst = new Node<>(p.hash, p.key, p.value, newFirst);
+                tab.set(index, newFirst);
+                count = count - 1;
+                return true;
+            }
+            finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Doubles the size of the segment table. Readers keep using the
+         * old table until the new one is published, so nodes that are
+         * still reachable from the old table are never modified. The tail
+         * of each chain that lands in the same new bucket is reused, the
+         * nodes in front of it get copied.
+         */
+        private void rehash() {
+            AtomicReferenceArray<Node<K, V>> oldTab = table;
+            int oldSize = oldTab.length();
+            if(oldSize >= 1 << 30)
+                return;
+
+            AtomicReferenceArray<Node<K, V>> newTab =
+                    new AtomicReferenceArray<>(oldSize << 1);
+            int mask = (oldSize << 1) - 1;
+
+            for(int i = 0; i < oldSize; i++) {
+                Node<K, V> first = oldTab.get(i);
+                if(first == null)
+                    continue;
+
+                // Find the trailing run of nodes going to the same bucket
+                Node<K, V> lastRun = first;
+                int lastIndex = first.hash & mask;
+                for(Node<K, V> node = first.next; node != null; node = node.next) {
+                    int index = node.hash & mask;
+                    if(index != lastIndex) {
+                        lastIndex = index;
+                        lastRun = node;
+                    }
+                }
+                newTab.set(lastIndex, lastRun);
+
+                // Copy the nodes in front of the run
+                for(Node<K, V> node = first; node != lastRun; node = node.next) {
+                    int index = node.hash & mask;
+                    newTab.set(index, new Node<>(node.hash, node.key, node.value,
+                                                 newTab.get(index)));
+                }
+            }
+            setTable(newTab);
+        }
+
+        private void setTable(AtomicReferenceArray<Node<K, V>> newTable) {
+            this.threshold = (int) (newTable.length() * 3L / 4);
+            this.table = newTable;
+        }
+    }
+
+    // Node inner class. Holds a key and value pair in a bucket chain.
+    private static final class Node<K, V> {
+        private final int hash;
+        private final K key;
+        private volatile V value;
+        private final Node<K, V> next;
+
+        public Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package Data_Structures;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe ordered map with the same add(), contains() and remove()
+ * methods as SplayTree, implemented as a lazy skip list (Herlihy, Lev,
+ * Luchangco and Shavit). Unlike SplayTree, reads never change the
+ * structure, so one map can be shared by every thread.
+ *
+ * Every node sits on a random number of levels, each level a sorted
+ * linked list that skips over about half of the nodes of the level below.
+ * A writer searches without locks, then locks the predecessors of the
+ * node on each of its levels and checks that nothing changed before
+ * linking or unlinking. A removed node is marked before it is unlinked,
+ * so contains() and get() never lock, never retry, and are wait free.
+ *
+ * subMap() iterators are weakly consistent: they never throw a
+ * ConcurrentModificationException, and may or may not see changes made
+ * after they were created.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the map
+ * @param <V> the type of values in the map
+ */
+public class ConcurrentOrderedMap<K, V> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node<K, V> head;
+    private final AtomicInteger size;
+
+    public ConcurrentOrderedMap() {
+        this.head = new Node<>(null, null, MAX_LEVEL - 1);
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Adds an entry into the map. Duplicate keys override existing data.
+     * @param key, the key of the entry
+     * @param value, the value of the entry
+     * @return true once the entry is in the map
+     */
+    public boolean add(K key, V value) {
+        if(key == null)
+            throw new IllegalArgumentException("Keys can't be null.");
+        int topLevel = randomLevel();
+        Node<K, V>[] preds = new Node[MAX_LEVEL];
+        Node<K, V>[] succs = new Node[MAX_LEVEL];
+
+        while(true) {
+            int found = find(key, preds, succs);
+            if(found != -1) {
+                Node<K, V> node = succs[found];
+                if(!node.marked) {
+                    // Another thread is still linking it
+                    while(!node.fullyLinked)
+                        Thread.yield();
+                    node.value = value;
+                    return true;
+                }
+                // Being removed, try again once it is unlinked
+                continue;
+            }
+
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for(int level = 0; valid && level <= topLevel; level++) {
+                    Node<K, V> pred = preds[level];
+                    Node<K, V> succ = succs[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && (succ == null || !succ.marked) &&
+                            pred.next.get(level) == succ;
+                }
+                if(!valid)
+                    continue;
+
+                Node<K, V> node = new Node<>(key, value, topLevel);
+                for(int level = 0; level <= topLevel; level++)
+                    node.next.set(level, succs[level]);
+                for(int level = 0; level <= topLevel; level++)
+                    preds[level].next.set(level, node);
+                node.fullyLinked = true;
+                size.incrementAndGet();
+                return true;
+            }
+            finally {
+                for(int level = 0; level <= highestLocked; level++)
+                    preds[level].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Searches the map to see if a key exists in the structure
+     * @param key, the key to be searched for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean contains(K key) {
+        return findNode(key) != null;
+    }
+
+    /**
+     * Returns the value stored under a key
+     * @param key, the key to be searched for
+     * @return the value of the key, null if the key is not in the map
+     */
+    public V get(K key) {
+        Node<K, V> node = findNode(key);
+
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Removes a key from the map
+     * @param key, the key to be removed
+     * @return the removed key, null if the key is not in the map
+     */
+    public K remove(K key) {
+        Node<K, V>[] preds = new Node[MAX_LEVEL];
+        Node<K, V>[] succs = new Node[MAX_LEVEL];
+        Node<K, V> victim = null;
+        boolean isMarked = false;
+        int topLevel = -1;
+
+        while(true) {
+            int found = find(key, preds, succs);
+            if(found != -1)
+                victim = succs[found];
+
+            // Only a fully linked node found at its top level can be removed
+            if(!isMarked && (found == -1 || !victim.fullyLinked ||
+                             victim.topLevel != found || victim.marked))
+                return null;
+
+            if(!isMarked) {
+                topLevel = victim.topLevel;
+                victim.lock.lock();
+                if(victim.marked) {
+                    victim.lock.unlock();
+                    return null;
+                }
+                victim.marked = true;
+                isMarked = true;
+            }
+
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for(int level = 0; valid && level <= topLevel; level++) {
+                    Node<K, V> pred = preds[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && pred.next.get(level) == victim;
+                }
+                if(!valid)
+                    continue;
+
+                for(int level = topLevel; level >= 0; level--)
+                    preds[level].next.set(level, victim.next.get(level));
+                victim.lock.unlock();
+                size.decrementAndGet();
+                return victim.key;
+            }
+            finally {
+                for(int level = 0; level <= highestLocked; level++)
+                    preds[level].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest key in the map
+     * @return the first key, null if the map is empty
+     */
+    public K firstKey() {
+        Node<K, V> node = nextLive(head.next.get(0));
+
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * Returns an iterator over the entries whose keys lie in a range, in
+     * ascending key order. Finding the start costs O(log n), and every
+     * entry after that O(1).
+     * @param from, the lowest key of the range, inclusive
+     * @param to, the highest key of the range, exclusive
+     * @return an iterator over the entries with from <= key < to
+     */
+    public Iterator<Map.Entry<K, V>> subMap(K from, K to) {
+        if(compare(from, to) > 0)
+            throw new IllegalArgumentException("from is larger than to.");
+        return new RangeIterator(from, to);
+    }
+
+    /**
+     * Returns the number of entries in the map. The count is exact only
+     * when no other thread is changing the map.
+     * @return int, the number of entries
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Checks to see if the map is currently empty
+     * @return true if there are no entries in the map, false otherwise
+     */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Fills preds and succs with the nodes around key on every level.
+     * @return the highest level the key was found on, -1 if it was not
+     * found
+     */
+    private int find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        Node<K, V> pred = head;
+        int found = -1;
+
+        for(int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K, V> curr = pred.next.get(level);
+            while(curr != null && compare(key, curr.key) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if(found == -1 && curr != null && compare(key, curr.key) == 0)
+                found = level;
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return found;
+    }
+
+    /**
+     * Wait free lookup, stops at the highest level that holds the key.
+     * @return the node of key, null if key is not in the map
+     */
+    private Node<K, V> findNode(K key) {
+        Node<K, V> pred = head;
+
+        for(int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K, V> curr = pred.next.get(level);
+            int cmp = 1;
+            while(curr != null && (cmp = compare(key, curr.key)) > 0) {
+                pred = curr;
+                curr = pred.next.get(level);
+            }
+            if(curr != null && cmp == 0)
+                return (curr.fullyLinked && !curr.marked) ? curr : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first node at or after a node of the bottom level that
+     * is in the map, skipping nodes being added or removed.
+     */
+    private Node<K, V> nextLive(Node<K, V> node) {
+        while(node != null && (node.marked || !node.fullyLinked))
+            node = node.next.get(0);
+        return node;
+    }
+
+    // number of levels above the bottom one, 0 with probability 1/2,
+    // 1 with probability 1/4 and so on
+    private int randomLevel() {
+        int level = Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt());
+
+        return Math.min(level, MAX_LEVEL - 1);
+    }
+
+    private int compare(K a, K b) {
+        return ((Comparable<K>) a).compareTo(b);
+    }
+
+    /**
+     * Weakly consistent iterator over the bottom level of the list.
+     */
+    private class RangeIterator implements Iterator<Map.Entry<K, V>> {
+        private final K to;
+        private Node<K, V> next;
+        private Node<K, V> last;
+
+        public RangeIterator(K from, K to) {
+            Node<K, V> pred = head;
+
+            // Descend to the last node before from, then step onto the bottom level
+            for(int level = MAX_LEVEL - 1; level >= 0; level--) {
+                Node<K, V> curr = pred.next.get(level);
+                while(curr != null && compare(from, curr.key) > 0) {
+                    pred = curr;
+                    curr = pred.next.get(level);
+                }
+            }
+            this.to = to;
+            this.next = nextLive(pred.next.get(0));
+            this.last = null;
+        }
+
+        /**
+         * Checks if there are more entries in the range
+         * @return true if there are more entries, false otherwise
+         */
+        public boolean hasNext() {
+            return next != null && compare(next.key, to) < 0;
+        }
+
+        /**
+         * Returns the next entry in ascending key order
+         * @return the next entry of the range
+         */
+        public Map.Entry<K, V> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            last = next;
+            next = nextLive(next.next.get(0));
+            return last;
+        }
+
+        /**
+         * Removes the last returned entry from the map.
+         */
+        public void remove() {
+            if(last == null)
+                throw new IllegalStateException();
+            ConcurrentOrderedMap.this.remove(last.key);
+            last = null;
+        }
+    }
+
+    /**
+     * Node of the skip list, linked on levels 0 to topLevel. The head node
+     * has a null key and is smaller than every key.
+     */
+    private static final class Node<K, V> implements Map.Entry<K, V> {
+        private final K key;
+        private volatile V value;
+        private final AtomicReferenceArray<Node<K, V>> next;
+        private final int topLevel;
+        private final ReentrantLock lock;
+        private volatile boolean marked;
+        private volatile boolean fullyLinked;
+
+        public Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.next = new AtomicReferenceArray<>(topLevel + 1);
+            this.topLevel = topLevel;
+            this.lock = new ReentrantLock();
+            this.marked = false;
+            this.fullyLinked = false;
+        }
+
+        public K getKey() {
+            return this.key;
+        }
+
+        public V getValue() {
+            return this.value;
+        }
+
+        public V setValue(V val) {
+            V old = this.value;
+            this.value = val;
+            return old;
+        }
+    }
+}
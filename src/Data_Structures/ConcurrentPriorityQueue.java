@@ -0,0 +1,270 @@
+package Data_Structures;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe priority queue with the same methods as PriorityQueue, for
+ * many threads adding and removing elements at the same time. Smallest
+ * elements are dequeued first. Two modes are available:
+ *
+ *   STRICT  - a lock free skip list. dequeue() always returns the
+ *             smallest element, and equal elements leave in the order
+ *             they were added.
+ *   RELAXED - a MultiQueue: several BinaryHeaps, each behind its own
+ *             lock. enqueue() adds to a random heap, dequeue() looks at
+ *             the tops of two random heaps and takes the smaller one.
+ *             The element returned is close to, but not always, the
+ *             smallest one, in exchange for much less contention.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements in the queue
+ */
+public class ConcurrentPriorityQueue<E> {
+
+    /**
+     * Ordering guarantees of the queue.
+     */
+    public enum Mode { STRICT, RELAXED }
+
+    private final QueueImpl<E> queue;
+    private final AtomicInteger size;
+
+    public ConcurrentPriorityQueue() {
+        this(Mode.STRICT, null);
+    }
+
+    public ConcurrentPriorityQueue(Comparator<? super E> comparator) {
+        this(Mode.STRICT, comparator);
+    }
+
+    /**
+     * Creates a queue. A relaxed queue gets two heaps per processor.
+     * @param mode, STRICT or RELAXED ordering
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public ConcurrentPriorityQueue(Mode mode, Comparator<? super E> comparator) {
+        this.size = new AtomicInteger();
+        if(mode == Mode.STRICT)
+            this.queue = new SkipListQueue<>(comparator);
+        else
+            this.queue = new MultiQueue<>(2 * Runtime.getRuntime().availableProcessors(),
+                                          comparator);
+    }
+
+    /**
+     * Creates a relaxed queue with a given number of heaps.
+     * @param numQueues, the number of heaps, at least 2
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public ConcurrentPriorityQueue(int numQueues, Comparator<? super E> comparator) {
+        if(numQueues < 2)
+            throw new IllegalArgumentException("A relaxed queue needs at least 2 heaps.");
+        this.size = new AtomicInteger();
+        this.queue = new MultiQueue<>(numQueues, comparator);
+    }
+
+    // inserts the object obj into the queue
+    public boolean enqueue(E obj) {
+        if(obj == null)
+            throw new IllegalArgumentException("Elements can't be null.");
+        queue.enqueue(obj);
+        size.incrementAndGet();
+        return true;
+    }
+
+    // removes and returns the smallest object in the queue, null if the
+    // queue is empty
+    public E dequeue() {
+        E obj = queue.dequeue();
+        if(obj != null)
+            size.decrementAndGet();
+        return obj;
+    }
+
+    // returns but does not remove the smallest object in the queue
+    public E peek() {
+        return queue.peek();
+    }
+
+    // returns the number of objects currently in the queue
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    // returns true if the queue is empty, otherwise false
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private static int compare(Comparator<Object> comparator, Object a, Object b) {
+        if(comparator == null)
+            return ((Comparable<Object>) a).compareTo(b);
+        return comparator.compare(a, b);
+    }
+
+    // Operations shared by both modes
+    private interface QueueImpl<E> {
+        public void enqueue(E obj);
+        public E dequeue();
+        public E peek();
+    }
+
+    /**
+     * Strict mode. Elements are keys of a concurrent skip list, paired
+     * with a sequence number so equal elements stay distinct and FIFO.
+     */
+    private static final class SkipListQueue<E> implements QueueImpl<E> {
+        private final ConcurrentSkipListMap<Entry<E>, Boolean> map;
+        private final AtomicLong sequence;
+
+        public SkipListQueue(final Comparator<? super E> comparator) {
+            this.sequence = new AtomicLong();
+            this.map = new ConcurrentSkipListMap<>(new Comparator<Entry<E>>() {
+                public int compare(Entry<E> a, Entry<E> b) {
+                    int cmp = ConcurrentPriorityQueue.compare((Comparator<Object>) comparator,
+                                                              a.data, b.data);
+                    if(cmp != 0)
+                        return cmp;
+                    return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+                }
+            });
+        }
+
+        public void enqueue(E obj) {
+            map.put(new Entry<>(obj, sequence.getAndIncrement()), Boolean.TRUE);
+        }
+
+        public E dequeue() {
+            Map.Entry<Entry<E>, Boolean> first = map.pollFirstEntry();
+            return first == null ? null : first.getKey().data;
+        }
+
+        public E peek() {
+            Map.Entry<Entry<E>, Boolean> first = map.firstEntry();
+            return first == null ? null : first.getKey().data;
+        }
+    }
+
+    // Element paired with its insertion number
+    private static final class Entry<E> {
+        private final E data;
+        private final long order;
+
+        public Entry(E data, long order) {
+            this.data = data;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Relaxed mode. Each heap publishes its current top in a volatile
+     * field, so dequeue() can compare two heaps before locking either.
+     * Threads never wait for a lock: a heap that is busy is skipped and
+     * another random heap is tried.
+     */
+    private static final class MultiQueue<E> implements QueueImpl<E> {
+        private final SubQueue<E>[] queues;
+        private final Comparator<Object> comparator;
+
+        public MultiQueue(int numQueues, Comparator<? super E> comparator) {
+            this.comparator = (Comparator<Object>) comparator;
+            this.queues = new SubQueue[numQueues];
+            for(int i = 0; i < numQueues; i++)
+                queues[i] = new SubQueue<>(comparator);
+        }
+
+        public void enqueue(E obj) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            while(true) {
+                SubQueue<E> sub = queues[random.nextInt(queues.length)];
+                if(sub.tryLock()) {
+                    try {
+                        sub.heap.add(obj);
+                        sub.top = sub.heap.peek();
+                        return;
+                    }
+                    finally {
+                        sub.unlock();
+                    }
+                }
+            }
+        }
+
+        public E dequeue() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            while(true) {
+                SubQueue<E> a = queues[random.nextInt(queues.length)];
+                SubQueue<E> b = queues[random.nextInt(queues.length)];
+                Object topA = a.top;
+                Object topB = b.top;
+                SubQueue<E> best;
+
+                if(topA == null && topB == null) {
+                    // Both looked empty, make sure the whole queue is
+                    best = anyNonEmpty(random.nextInt(queues.length));
+                    if(best == null)
+                        return null;
+                }
+                else if(topB == null || (topA != null && compare(comparator, topA, topB) <= 0))
+                    best = a;
+                else
+                    best = b;
+
+                if(best.tryLock()) {
+                    try {
+                        if(!best.heap.isEmpty()) {
+                            E obj = best.heap.remove();
+                            best.top = best.heap.peek();
+                            return obj;
+                        }
+                    }
+                    finally {
+                        best.unlock();
+                    }
+                }
+            }
+        }
+
+        public E peek() {
+            Object min = null;
+
+            for(int i = 0; i < queues.length; i++) {
+                Object top = queues[i].top;
+                if(top != null && (min == null || compare(comparator, top, min) < 0))
+                    min = top;
+            }
+            return (E) min;
+        }
+
+        // Returns a heap with a top element, starting at a random heap
+        private SubQueue<E> anyNonEmpty(int start) {
+            for(int i = 0; i < queues.length; i++) {
+                SubQueue<E> sub = queues[(start + i) % queues.length];
+                if(sub.top != null)
+                    return sub;
+            }
+            return null;
+        }
+    }
+
+    // BinaryHeap guarded by a lock, with its top published for readers
+    private static final class SubQueue<E> extends ReentrantLock {
+        private final BinaryHeap<E> heap;
+        private volatile E top;
+
+        public SubQueue(Comparator<? super E> comparator) {
+            this.heap = new BinaryHeap<>(16, comparator);
+            this.top = null;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package Data_Structures;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Slot bookkeeping shared by the hash tables that keep their keys and
+ * values in flat arrays: IntIntHashTable, LongLongHashTable,
+ * LongObjectHashTable and ObjectIntHashTable. Every one of them probes
+ * linearly from the home slot of a key, keeps its load under MAX_LOAD by
+ * doubling, refuses new keys once it is full at MAX_CAPACITY, and deletes
+ * with backward shifting so no tombstones are left behind.
+ *
+ * Subclasses own the arrays and do their own probing, since that is where
+ * the type of the keys matters. Everything else is done here through a
+ * few slot methods:
+ *
+ *   isFree(slot)        - true if the slot holds no key.
+ *   homeOf(slot)        - the home slot of the key stored in a slot.
+ *   moveSlot(from, to)  - copies a key and its value to another slot.
+ *   clearSlot(slot)     - marks a slot as free.
+ *   allocateSlots(size) - creates empty arrays of a given size.
+ *
+ * Tables with number keys use the key 0 as the free marker and keep the
+ * real key 0 in a field of their own. hasZeroKey tells whether it is in
+ * the table, and cursors return it before the keys in the slots.
+ *
+ * @author Ruben Ramirez
+ */
+
+abstract class FlatHashTable {
+
+    static final double MAX_LOAD = .75;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    // Cursor positions that are not slots
+    private static final int ZERO_SLOT = -1;
+    private static final int NO_SLOT = -2;
+
+    int tableSize;
+    int mask;
+    int threshold;
+    int numElements;
+    int modCount;
+    boolean hasZeroKey;
+
+    /**
+     * Returns the number of keys currently in the hash table.
+     * @return the number of keys currently in the hash table.
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /**
+     * Test whether the hash table is empty.
+     * @return true if the table is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /**
+     * Returns the current load factor value.
+     * Load factor = number of elements / table size
+     * @return the current value of the load factor.
+     */
+    public double loadFactor() {
+        return (double) numElements / tableSize;
+    }
+
+    /**
+     * Resizes the hash table. The size gets rounded up to a power of two
+     * that can hold the current elements, and every existing element gets
+     * rehashed into the new arrays.
+     * @param newSize, the size of the new hash table.
+     */
+    public abstract void resize(int newSize);
+
+    abstract boolean isFree(int slot);
+
+    abstract int homeOf(int slot);
+
+    abstract void moveSlot(int from, int to);
+
+    abstract void clearSlot(int slot);
+
+    abstract void allocateSlots(int size);
+
+    /**
+     * Checks that a new key can be stored in a slot. Called by add()
+     * before it fills the free slot it probed to.
+     * @throws IllegalStateException if the table is full at its largest
+     * size, where it can't grow and a full table would probe forever.
+     */
+    void checkFull() {
+        if(numElements >= threshold && tableSize == MAX_CAPACITY)
+            throw new IllegalStateException("Table is full.");
+    }
+
+    /**
+     * Counts a key that add() stored in a free slot, and creates a larger
+     * table if the load factor is too large.
+     */
+    void slotAdded() {
+        this.modCount++;
+        if(++numElements > threshold)
+            resize(tableSize * 2);
+    }
+
+    /**
+     * Removes the key stored in a slot.
+     * @param slot, the index of the slot holding the key.
+     */
+    void slotRemoved(int slot) {
+        deleteSlot(slot);
+        this.numElements--;
+        this.modCount++;
+    }
+
+    /**
+     * Records that the key 0 was added to or removed from its field.
+     * @param present, true if the key 0 is now in the table.
+     */
+    void zeroKeyChanged(boolean present) {
+        if(present == hasZeroKey)
+            return;
+        this.hasZeroKey = present;
+        this.numElements += present ? 1 : -1;
+        this.modCount++;
+    }
+
+    /**
+     * Allocates empty arrays of the given size.
+     * @param size, a power of two.
+     */
+    void allocate(int size) {
+        this.tableSize = size;
+        this.mask = size - 1;
+        this.threshold = (int) (size * MAX_LOAD);
+        this.modCount++;
+        allocateSlots(size);
+    }
+
+    /**
+     * Empties a slot and shifts back any following entries of the same
+     * probe run whose home slot allows it.
+     * @param hole, the index of the slot to be emptied.
+     */
+    private void deleteSlot(int hole) {
+        int index = hole;
+        int home;
+
+        while(true) {
+            index = (index + 1) & mask;
+            if(isFree(index))
+                break;
+            home = homeOf(index);
+
+            // Entry can move if the hole lies between its home and its slot
+            if(((index - home) & mask) >= ((index - hole) & mask)) {
+                moveSlot(index, hole);
+                hole = index;
+            }
+        }
+        clearSlot(hole);
+    }
+
+    /**
+     * Returns the first slot at or after a given one that holds a key.
+     * @param slot, the slot the search starts at.
+     * @return the index of the slot, tableSize if there is none.
+     */
+    private int nextUsed(int slot) {
+        while(slot < tableSize && isFree(slot))
+            slot++;
+        return slot;
+    }
+
+    /**
+     * Returns the table size needed to hold a number of elements
+     * without going over the maximum load factor.
+     * @param numElements, the number of elements to be held.
+     * @return a power of two table size.
+     */
+    static int capacityFor(int numElements) {
+        return tableSizeFor((int) Math.min((long) (numElements / MAX_LOAD) + 1,
+                MAX_CAPACITY));
+    }
+
+    /**
+     * Rounds a size up to the next power of two.
+     * @param size, the requested size.
+     * @return the smallest power of two greater or equal to size.
+     */
+    static int tableSizeFor(int size) {
+        if(size <= 2)
+            return 2;
+        if(size > MAX_CAPACITY)
+            return MAX_CAPACITY;
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Walks the keys of a table in slot order without allocating. Call
+     * advance() to move to the next key, then read it and its value from
+     * the subclass. Adding or removing keys while a cursor is in use makes
+     * it throw ConcurrentModificationException, replacing the value of an
+     * existing key does not.
+     */
+    abstract class SlotCursor {
+        private int slot;
+        private int next;
+        private final int expectedModCount;
+
+        SlotCursor() {
+            this.slot = NO_SLOT;
+            this.next = hasZeroKey ? ZERO_SLOT : nextUsed(0);
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * Checks if there are more keys to traverse
+         * @return true if there are more keys, false otherwise
+         */
+        public boolean hasNext() {
+            return next < tableSize;
+        }
+
+        /**
+         * Moves the cursor to the next key in the table.
+         * @throws NoSuchElementException if there are no more keys.
+         */
+        public void advance() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+            this.slot = next;
+            this.next = nextUsed(slot + 1);
+        }
+
+        /**
+         * Tests whether the cursor is on the key 0, which is not kept in
+         * a slot.
+         * @return true if the current key is 0.
+         */
+        boolean atZeroKey() {
+            return slot() == ZERO_SLOT;
+        }
+
+        /**
+         * Returns the slot of the current key.
+         * @return the slot index, ZERO_SLOT for the key 0.
+         */
+        int slot() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(slot == NO_SLOT)
+                throw new IllegalStateException("advance() was not called.");
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package Data_Structures;
+
+import java.util.Random;
+
+/**
+ * Strategy used by the hash tables to turn a key into a 32 bit hash
+ * value. Tables have power of two sizes and keep the low bits of the
+ * hash, so a strategy should spread the information of the key over all
+ * bits of its result.
+ *
+ *   identity() - uses hashCode() unchanged. Only suitable for keys whose
+ *                hash codes are already well distributed.
+ *   mixed()    - runs hashCode() through the murmur3 finalizer, so keys
+ *                like sequential Integers or similar Strings end up in
+ *                different buckets. This is the default.
+ *   seeded()   - mixes a random per instance seed into the hash. Strings
+ *                and other CharSequences are hashed from their characters
+ *                with SipHash-1-3, a keyed hash whose collisions can't be
+ *                found without knowing the seed, so keys crafted to
+ *                collide under hashCode() do not collide here. Use it for
+ *                tables holding String keys that come from untrusted
+ *                sources. Other keys are still hashed from hashCode(), so
+ *                keys with equal hash codes keep colliding.
+ *
+ * @author Ruben Ramirez
+ */
+
+public abstract class HashStrategy {
+
+    private static final HashStrategy IDENTITY = new HashStrategy() {
+        public int hash(Object key) {
+            return key.hashCode();
+        }
+    };
+
+    private static final HashStrategy MIXED = new HashStrategy() {
+        public int hash(Object key) {
+            return mix(key.hashCode());
+        }
+    };
+
+    /**
+     * Returns the hash value of a key.
+     * @param key, the key that is to be hashed.
+     * @return the hash value of the key.
+     */
+    public abstract int hash(Object key);
+
+    /**
+     * Returns a strategy that uses the keys' hashCode() unchanged.
+     * @return the identity strategy.
+     */
+    public static HashStrategy identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * Returns a strategy that mixes the bits of the keys' hashCode().
+     * @return the mixing strategy.
+     */
+    public static HashStrategy mixed() {
+        return MIXED;
+    }
+
+    /**
+     * Returns a strategy with a random seed.
+     * @return a new seeded strategy.
+     */
+    public static HashStrategy seeded() {
+        return new SeededStrategy(new Random().nextLong());
+    }
+
+    /**
+     * Returns a strategy with a given seed. Two strategies with the same
+     * seed return the same hash values.
+     * @param seed, the seed mixed into every hash value.
+     * @return a new seeded strategy.
+     */
+    public static HashStrategy seeded(long seed) {
+        return new SeededStrategy(seed);
+    }
+
+    /**
+     * Murmur3 32 bit finalizer. Every input bit affects every output bit.
+     * @param h, the value to be mixed.
+     * @return the mixed value.
+     */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Murmur3 64 bit finalizer.
+     * @param h, the value to be mixed.
+     * @return the mixed value.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Seeded strategy. Character sequences are hashed with SipHash-1-3
+     * keyed by the seed, Longs from their full 64 bit value, everything
+     * else from hashCode() combined with the seed.
+     */
+    private static final class SeededStrategy extends HashStrategy {
+        private final long seed;
+        private final long k0;
+        private final long k1;
+
+        public SeededStrategy(long seed) {
+            this(seed, mix(seed));
+        }
+
+        private SeededStrategy(long k0, long k1) {
+            this.seed = k0;
+            this.k0 = k0;
+            this.k1 = k1;
+        }
+
+        public int hash(Object key) {
+            if(key instanceof CharSequence)
+                return hashChars((CharSequence) key);
+            if(key instanceof Long)
+                return (int) mix((Long) key ^ seed);
+            return (int) mix(key.hashCode() ^ seed);
+        }
+
+        /**
+         * SipHash-1-3 of the UTF-16 code units of a character sequence,
+         * in little endian order, folded to 32 bits.
+         */
+        private int hashChars(CharSequence chars) {
+            long v0 = k0 ^ 0x736f6d6570736575L;
+            long v1 = k1 ^ 0x646f72616e646f6dL;
+            long v2 = k0 ^ 0x6c7967656e657261L;
+            long v3 = k1 ^ 0x7465646279746573L;
+            int length = chars.length();
+            int last = length & ~3;
+
+            // Four characters per 64 bit word. The last word holds the
+            // leftover characters and the length in bytes.
+            for(int i = 0; i <= last; i += 4) {
+                long m;
+                if(i < last)
+                    m = chars.charAt(i) | (long) chars.charAt(i + 1) << 16 |
+                        (long) chars.charAt(i + 2) << 32 | (long) chars.charAt(i + 3) << 48;
+                else {
+                    m = (long) (length * 2) << 56;
+                    for(int j = i; j < length; j++)
+                        m |= (long) chars.charAt(j) << ((j - i) * 16);
+                }
+                v3 ^= m;
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+                v0 ^= m;
+            }
+
+            // Three finalization rounds
+            v2 ^= 0xff;
+            for(int round = 0; round < 3; round++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            long h = v0 ^ v1 ^ v2 ^ v3;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package Data_Structures;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Generic Hash Table data structure. Hash table has methods
@@ -13,19 +18,51 @@ import java.util.Iterator;
   
 public class HashTable<K, V> implements Iterable<K> {
 	
+    // Number of old buckets moved by each operation during a rehash
+    private static final int REHASH_STEPS = 4;
+
     private LinkedList<HashNode<K, V>>[] table;
+    private LinkedList<HashNode<K, V>>[] oldTable;
     private int tableSize;
+    private int oldTableSize;
+    private int rehashIndex;
     private int numElements;
+    private int modCount;
+    private final boolean incremental;
+    private final HashStrategy strategy;
     
     public HashTable(int maxSize) {
+        this(maxSize, false, HashStrategy.mixed());
+    }
+
+    public HashTable(int maxSize, boolean incremental) {
+        this(maxSize, incremental, HashStrategy.mixed());
+    }
+
+    /**
+     * Creates a hash table that can grow incrementally. When incremental
+     * is true a resize triggered by add() does not rehash everything at
+     * once: the old and the new table stay live together, and every add,
+     * getValue and remove call moves a few buckets over until the old
+     * table is empty.
+     *
+     * Keys are hashed with the given strategy. The table size is always
+     * a power of two, so the hash gets masked instead of divided.
+     * @param maxSize, the expected number of elements.
+     * @param incremental, true to spread rehashing over later operations.
+     * @param strategy, the strategy used to hash the keys.
+     */
+    public HashTable(int maxSize, boolean incremental, HashStrategy strategy) {
+        if(strategy == null)
+            throw new IllegalArgumentException("Strategy can't be null.");
         
-        this.tableSize = (int) (maxSize * 1.3f);
+        this.strategy = strategy;
+        this.tableSize = tableSizeFor((int) (maxSize * 1.3f));
         this.table = new LinkedList[tableSize];
+        this.oldTable = null;
         this.numElements = 0;
-        
-        // Create a linked list in each array cell of the array
-        for(int i = 0; i < tableSize; i++)
-            table[i] = new LinkedList<HashNode<K, V>>();
+        this.modCount = 0;
+        this.incremental = incremental;
     }
 
     /**
@@ -37,32 +74,146 @@ public class HashTable<K, V> implements Iterable<K> {
     public boolean add(K key, V value) {
 
         // Create a larger table if load factor is too large
-        if(loadFactor() >= .75)
-            resize(tableSize * 2);
+        if(loadFactor() >= .75) {
+            if(incremental)
+                startRehash(tableSize * 2);
+            else
+                resize(tableSize * 2);
+        }
+        else if(oldTable != null)
+            rehashStep();
 
-        int index = getIndex(key);
+        insert(key, value);
+        return true;
+    }
 
-        // Check for a duplicate key, delete if one is found
-        if(table[index].contains(new HashNode<K, V>(key, null))) {
-            table[index].remove(new HashNode<K, V>(key, null));
-                this.numElements--;
+    /**
+     * Adds every key and value pair of two arrays to the table. The table
+     * gets resized at most once up front, and no load factor checks are
+     * done while the pairs are inserted.
+     * @param keys, the keys to be added.
+     * @param values, the values to be added, values[i] belongs to keys[i].
+     * @return true if the pairs are successfully added.
+     */
+    public boolean putAll(K[] keys, V[] values) {
+        if(keys.length != values.length)
+            throw new IllegalArgumentException("Keys and values must have the same length.");
+
+        ensureCapacity(numElements + keys.length);
+        for(int i = 0; i < keys.length; i++) {
+            if(oldTable != null)
+                rehashStep();
+            insert(keys[i], values[i]);
         }
+        return true;
+    }
 
-        // Insert HashNode into table
-        table[index].addFirst(new HashNode<>(key, value));
-        this.numElements++;
+    /**
+     * Adds every key and value pair of a collection of entries, for example
+     * the entrySet() of a Map. Collections get presized to their size.
+     * @param entries, the key and value pairs to be added.
+     * @return true if the pairs are successfully added.
+     */
+    public boolean putAll(Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        if(entries instanceof Collection)
+            ensureCapacity(numElements + ((Collection<?>) entries).size());
+        else
+            ensureCapacity(numElements);
+
+        // Grow the same way add() does, so incremental tables never block
+        for(Map.Entry<? extends K, ? extends V> entry : entries) {
+            if(loadFactor() >= .75) {
+                if(incremental)
+                    startRehash(tableSize * 2);
+                else
+                    resize(tableSize * 2);
+            }
+            else if(oldTable != null)
+                rehashStep();
+            insert(entry.getKey(), entry.getValue());
+        }
         return true;
     }
 
+    /**
+     * Looks up a batch of keys. The value of keys[i] is stored in
+     * values[i], or null if the key is not in the table.
+     * @param keys, the keys to be looked up.
+     * @param values, the array the values get written to.
+     * @return the number of keys that were found.
+     */
+    public int getAll(K[] keys, V[] values) {
+        if(values.length < keys.length)
+            throw new IllegalArgumentException("Value array is too small.");
+        int found = 0;
+
+        for(int i = 0; i < keys.length; i++) {
+            if(oldTable != null)
+                rehashStep();
+            HashNode<K,V> tmp = findNode(bucketFor(keys[i], false), keys[i]);
+            values[i] = tmp == null ? null : tmp.data;
+            if(tmp != null)
+                found++;
+        }
+        return found;
+    }
+
+    /**
+     * Removes a batch of keys from the table.
+     * @param keys, the keys to be removed.
+     * @return the number of keys that were removed.
+     */
+    public int removeAll(K[] keys) {
+        int removed = 0;
+
+        for(int i = 0; i < keys.length; i++) {
+            if(remove(keys[i]))
+                removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every key of a collection from the table.
+     * @param keys, the keys to be removed.
+     * @return the number of keys that were removed.
+     */
+    public int removeAll(Iterable<? extends K> keys) {
+        int removed = 0;
+
+        for(K key : keys) {
+            if(remove(key))
+                removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Makes sure the table can hold a number of elements without going
+     * over the load factor, resizing it once if it is too small. A
+     * pending incremental rehash is only finished if the table has to
+     * be resized.
+     * @param numElements, the number of elements the table should hold.
+     */
+    public void ensureCapacity(int numElements) {
+        int needed = (int) Math.min((long) (numElements / .75) + 1, 1 << 30);
+        if(needed > tableSize)
+            resize(needed);
+    }
+
     /**
      * Returns an index value based on a key value.
-     * @param key, the key that is to be hashed and modded.
-     * @return the index that was generated from the hash code.
+     * @param key, the key that is to be hashed.
+     * @return the index that was generated from the hash value.
      */
     public int getIndex(K key) {
-        // Get hash value, make it positive, mod on table size
-        return (key.hashCode() & 0x7FFFFFFF) % tableSize;
-}
+        return getIndex(key, tableSize);
+    }
+
+    // Get hash value, keep the low bits of the power of two table size
+    private int getIndex(K key, int size) {
+        return strategy.hash(key) & (size - 1);
+    }
 
     /**
      * Removes an object from the hash table if it is in the table.
@@ -70,13 +221,10 @@ public class HashTable<K, V> implements Iterable<K> {
      * @return true if an object got removed, false otherwise.
      */
     public boolean remove(K key) {
-        int index = getIndex(key);
-        HashNode<K,V> tmp = table[index].remove(new HashNode<K, V>(key, null));
+        if(oldTable != null)
+            rehashStep();
 
-        if(tmp == null)
-            return false;
-        this.numElements--;
-        return true;
+        return removeKey(key);
     }
 
     /**
@@ -86,9 +234,10 @@ public class HashTable<K, V> implements Iterable<K> {
      * if there is no element with the given key.
      */
     public V getValue(K key) {
-        int index = getIndex(key);
-        HashNode<K,V> tmp = table[index].get(new HashNode<K, V>(key, null));
+        if(oldTable != null)
+            rehashStep();
 
+        HashNode<K,V> tmp = findNode(bucketFor(key, false), key);
         if(tmp == null)
             return null;
         return tmp.data;
@@ -121,58 +270,225 @@ public class HashTable<K, V> implements Iterable<K> {
 
     /**
      * Resizes the hash table when the load factor exceeds 0.75.
-     * Every existing element gets rehashed into the new table.
-     * @param newSize, the size of the new hash table.
+     * Every existing element gets rehashed into the new table. A rehash
+     * that is still in progress gets finished first.
+     * @param newSize, the size of the new hash table, rounded up to a
+     * power of two.
      */
     public void resize(int newSize) {
+        startRehash(newSize);
+        finishRehash();
+    }
 
-        LinkedList<HashNode<K, V>>[] newList = new LinkedList[newSize];
-        HashNode<K,V> temp = null;
-        int index, linkedListSize;
-        this.tableSize = newSize;
+    /**
+     * Tests whether an incremental rehash is currently in progress.
+     * @return true if elements are still stored in the old table.
+     */
+    public boolean isRehashing() {
+        return oldTable != null;
+    }
 
-        // Create a linked list in each array cell of the new array
-        for(int i = 0; i < newSize; i++)
-            newList[i] = new LinkedList<HashNode<K, V>>(); 
+    /**
+     * Makes the current table the old table and installs an empty
+     * table of the new size. Elements get moved over by rehashStep().
+     * @param newSize, the size of the new hash table.
+     */
+    private void startRehash(int newSize) {
 
-        // Rehash every element in the table
-        for(int i = 0; i < tableSize / 2; i++) {
-            linkedListSize = table[i].size();
+        // Only one rehash can be in progress at a time
+        finishRehash();
 
-            for(int j = 0; j < linkedListSize; j++) {
-                temp = table[i].removeFirst();
-                index = getIndex(temp.key);
-                newList[index].addFirst(temp);
+        this.oldTable = table;
+        this.oldTableSize = tableSize;
+        this.rehashIndex = 0;
+        this.tableSize = tableSizeFor(newSize);
+        this.table = new LinkedList[tableSize];
+        this.modCount++;
+    }
+
+    /**
+     * Rounds a size up to the next power of two.
+     * @param size, the requested size.
+     * @return the smallest power of two greater or equal to size.
+     */
+    private static int tableSizeFor(int size) {
+        if(size <= 1)
+            return 1;
+        if(size > 1 << 30)
+            return 1 << 30;
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Moves up to REHASH_STEPS non empty buckets from the old table into
+     * the new table. Empty buckets are skipped, but only a bounded number
+     * of them so that a single call stays cheap.
+     */
+    private void rehashStep() {
+        LinkedList<HashNode<K, V>> list;
+        HashNode<K,V> temp;
+        int moved = 0;
+        int emptyVisits = REHASH_STEPS * 10;
+
+        while(moved < REHASH_STEPS && rehashIndex < oldTableSize) {
+            list = oldTable[rehashIndex];
+            oldTable[rehashIndex++] = null;
+
+            if(list == null || list.isEmpty()) {
+                if(--emptyVisits == 0)
+                    break;
+                continue;
             }
+
+            // Rehash every element in the bucket
+            while((temp = list.removeFirst()) != null)
+                bucket(getIndex(temp.key)).addFirst(temp);
+            moved++;
         }
-        this.table = newList;
+
+        if(rehashIndex == oldTableSize)
+            this.oldTable = null;
+    }
+
+    /**
+     * Moves every remaining bucket of an incremental rehash.
+     */
+    private void finishRehash() {
+        while(oldTable != null)
+            rehashStep();
+    }
+
+    /**
+     * Inserts a key and value without checking the load factor. The value
+     * of an existing key gets replaced in place.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     */
+    private void insert(K key, V value) {
+        LinkedList<HashNode<K, V>> list = bucketFor(key, true);
+        HashNode<K,V> node = findNode(list, key);
+
+        // Check for a duplicate key, replace its value if one is found
+        if(node != null) {
+            node.data = value;
+            return;
+        }
+
+        // Insert HashNode into table
+        list.addFirst(new HashNode<>(key, value));
+        this.numElements++;
+        this.modCount++;
+    }
+
+    /**
+     * Removes a key from whichever table holds it.
+     * @param key, the key that is going to be removed.
+     * @return true if an object got removed, false otherwise.
+     */
+    private boolean removeKey(K key) {
+        if(!removeNode(bucketFor(key, false), key))
+            return false;
+        this.numElements--;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the bucket holding a key. While a rehash is in progress a
+     * key stays in the old table until its old bucket gets moved, so
+     * every key is in exactly one of the two tables.
+     * @param key, the key whose bucket is wanted.
+     * @param create, true to create the bucket if it is not used yet.
+     * @return the list holding the HashNodes of the bucket, null if
+     * create is false and the bucket is not used yet.
+     */
+    private LinkedList<HashNode<K, V>> bucketFor(K key, boolean create) {
+        LinkedList<HashNode<K, V>>[] buckets = table;
+        int hash = strategy.hash(key);
+        int index = hash & (tableSize - 1);
+
+        if(oldTable != null && (hash & (oldTableSize - 1)) >= rehashIndex) {
+            buckets = oldTable;
+            index = hash & (oldTableSize - 1);
+        }
+        if(create && buckets[index] == null)
+            buckets[index] = new LinkedList<HashNode<K, V>>();
+        return buckets[index];
+    }
+
+    /**
+     * Returns the list stored at an index of the current table,
+     * creating it the first time the bucket is used.
+     * @param index, the index of the bucket.
+     * @return the list holding the HashNodes of the bucket.
+     */
+    private LinkedList<HashNode<K, V>> bucket(int index) {
+        if(table[index] == null)
+            table[index] = new LinkedList<HashNode<K, V>>();
+        return table[index];
+    }
+
+    /**
+     * Searches a bucket for the HashNode holding a key.
+     * @param list, the bucket to be searched, may be null.
+     * @param key, the key that is going to be searched for.
+     * @return the HashNode holding the key, null if it is not found.
+     */
+    private HashNode<K,V> findNode(LinkedList<HashNode<K, V>> list, K key) {
+        if(list == null || list.isEmpty())
+            return null;
+        return list.get(new HashNode<K, V>(key, null));
+    }
+
+    /**
+     * Removes the HashNode holding a key from a bucket.
+     * @param list, the bucket to be searched, may be null.
+     * @param key, the key that is going to be removed.
+     * @return true if a HashNode got removed, false otherwise.
+     */
+    private boolean removeNode(LinkedList<HashNode<K, V>> list, K key) {
+        if(list == null || list.isEmpty())
+            return false;
+        return list.remove(new HashNode<K, V>(key, null)) != null;
     }
 
     /**
      *  Returns an iterator of the keys in the hash table, in
-     *  ascending sorted order.
+     *  table order. During an incremental rehash the keys still in
+     *  the old table come first.
      *  @return an iterator that traverses the keys in the table.
- */
+     */
     public Iterator<K> iterator() {
-        return new KeyIterator<K>();
+        return new KeyIterator();
     }
 
     /**
      *  Returns an iterator of the keys in the hash table, in
-     *  ascending sorted order.
+     *  table order. During an incremental rehash the keys still in
+     *  the old table come first.
      *  @return an iterator that traverses the keys in the table.
- */
+     */
     public Iterator<K> keys() {
-        return new KeyIterator<K>();
+        return new KeyIterator();
     }
 
     /**
      *  Returns an Iterator of the values in the hash table. The 
      *  order of the values must match the order of the keys.
      *  @return an iterator that traverses the values in the table.
- */
+     */
     public Iterator<V> values() {
-        return new ValueIterator<V>();
+        return new ValueIterator();
+    }
+
+    /**
+     *  Returns an Iterator of the key and value pairs in the hash
+     *  table, in the same order as the keys. Calling setValue() on
+     *  a returned entry updates the value stored in the table.
+     *  @return an iterator that traverses the entries in the table.
+     */
+    public Iterator<Map.Entry<K, V>> entries() {
+        return new EntryIterator();
     }
 
     /**
@@ -183,12 +499,9 @@ public class HashTable<K, V> implements Iterable<K> {
      * the next() method so the values associated with the key 
      * get returned.
      */
-    private class ValueIterator<V> extends IteratorHelper<V> {
-        public ValueIterator() {
-            super();
-        }
+    private class ValueIterator extends IteratorHelper<V> {
         public V next() {
-            return (V) nodeArray[index++].data;
+            return nextNode().data;
         }
     }
 
@@ -199,46 +512,151 @@ public class HashTable<K, V> implements Iterable<K> {
      * Extends the abstract IteratorHelper class, and implements 
      * the next() method so the key values get returned.
      */
-    private class KeyIterator<K> extends IteratorHelper<K> {
-        public KeyIterator() {
-            super();
-        }
+    private class KeyIterator extends IteratorHelper<K> {
         public K next() {
-            return (K) nodeArray[index++].key;
+            return nextNode().key;
+        }
+    }
+
+    /**
+     * EntryIterator inner class that iterates through the HashNodes
+     * in the hash table, returning key and value together.
+     */
+    private class EntryIterator extends IteratorHelper<Map.Entry<K, V>> {
+        public Map.Entry<K, V> next() {
+            return nextNode();
         }
     }
 
     // Abstract IteratorHelper super class that will be used by the 
-    // key() and value() iterators. 
+    // key(), value() and entries() iterators. Walks the buckets lazily
+    // and throws ConcurrentModificationException if the table gets 
+    // modified by add() or remove() during the traversal.
+    //
+    // An incremental rehash is not finished first: the old table is
+    // walked, then the new one. getValue() may keep moving old buckets
+    // into the new table during the walk, so the iterator remembers the
+    // ranges of old buckets that were moved before it reached them, and
+    // only returns nodes of the new table that came from those ranges.
     private abstract class IteratorHelper<E> implements Iterator<E> {
-        protected HashNode<K, V>[] nodeArray;
-        protected int index, j;
+        private Iterator<HashNode<K, V>> bucketIterator;
+        private HashNode<K, V> next;
+        private LinkedList<HashNode<K, V>>[] old;
+        private final int oldSize;
+        private int[] moved;
+        private int numMoved;
+        private int index;
+        private final int expectedModCount;
 
         public IteratorHelper() {
-            nodeArray = new HashNode[numElements];
-            index = 0;
-            j = 0;
-
-            // Add all the HashNodes of the table to an array
-            for(int i = 0; i < tableSize; i++) {
-                for(HashNode<K,V> node : table[i]) 
-                    nodeArray[j++] = node;
+            this.bucketIterator = null;
+            this.next = null;
+            this.old = oldTable;
+            this.oldSize = oldTable == null ? 0 : oldTableSize;
+            this.moved = null;
+            this.numMoved = 0;
+            this.index = 0;
+            this.expectedModCount = modCount;
+
+            // Old buckets below rehashIndex are already in the new table
+            if(old != null) {
+                this.moved = new int[4];
+                addMoved(0, rehashIndex);
+                this.index = rehashIndex;
             }
         }
 
         public boolean hasNext() {
-            return index < numElements;
+            while(next == null) {
+                if(bucketIterator != null && bucketIterator.hasNext()) {
+                    HashNode<K, V> node = bucketIterator.next();
+                    if(old != null || oldSize == 0 || wasMoved(getIndex(node.key, oldSize)))
+                        this.next = node;
+                }
+                else if(old != null)
+                    nextOldBucket();
+                else if(index < tableSize) {
+                    bucketIterator = table[index] == null ? null : table[index].iterator();
+                    index++;
+                }
+                else
+                    return false;
+            }
+            return true;
         }
 
         public abstract E next();
 
+        // Returns the next HashNode in the table
+        protected HashNode<K, V> nextNode() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+            HashNode<K, V> node = next;
+            this.next = null;
+            return node;
+        }
+
         public void remove() {
             throw new UnsupportedOperationException();
         }
+
+        // Moves to the next old bucket, or to the new table once the old
+        // one is walked. Buckets that were moved before the iterator got
+        // to them are skipped here and picked up in the new table.
+        private void nextOldBucket() {
+            int rehashed = oldTable == old ? rehashIndex : oldSize;
+
+            bucketIterator = null;
+            if(rehashed > index) {
+                addMoved(index, rehashed);
+                this.index = rehashed;
+            }
+            else if(index < oldSize) {
+                bucketIterator = old[index] == null ? null : old[index].iterator();
+                index++;
+            }
+            if(index >= oldSize && bucketIterator == null) {
+                this.old = null;
+                this.index = 0;
+            }
+        }
+
+        // Records that the old buckets from..to-1 were moved unvisited
+        private void addMoved(int from, int to) {
+            if(from >= to)
+                return;
+            if(numMoved > 0 && moved[numMoved - 1] == from) {
+                moved[numMoved - 1] = to;
+                return;
+            }
+            if(numMoved == moved.length)
+                this.moved = Arrays.copyOf(moved, numMoved * 2);
+            moved[numMoved++] = from;
+            moved[numMoved++] = to;
+        }
+
+        // Tests whether an old bucket is in one of the moved ranges
+        private boolean wasMoved(int oldIndex) {
+            int low = 0;
+            int high = numMoved / 2 - 1;
+
+            while(low <= high) {
+                int middle = (low + high) >>> 1;
+                if(oldIndex < moved[2 * middle])
+                    high = middle - 1;
+                else if(oldIndex >= moved[2 * middle + 1])
+                    low = middle + 1;
+                else
+                    return true;
+            }
+            return false;
+        }
     }
 
     // HashNode inner class. HashNodes hold a key and value pair.
-    private class HashNode<K,V> implements Comparable<HashNode<K,V>> {
+    private static class HashNode<K,V> implements Comparable<HashNode<K,V>>, Map.Entry<K, V> {
         private K key;
         private V data;
 
@@ -250,5 +668,19 @@ public class HashTable<K, V> implements Iterable<K> {
         public int compareTo(HashNode<K,V> obj) {
             return (((Comparable<K>)key).compareTo(obj.key));
         }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return data;
+        }
+
+        public V setValue(V value) {
+            V old = data;
+            this.data = value;
+            return old;
+        }
     }
 }
@@ -0,0 +1,35 @@
+package Data_Structures;
+
+/**
+ * Operations shared by the min heaps, so code can switch between a
+ * BinaryHeap and a PairingHeap.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements in the heap
+ */
+public interface HeapADT<E> extends Iterable<E> {
+
+//  Adds the Object obj to the heap. Returns true if the heap changed.
+    public boolean add(E obj);
+
+//  Removes and returns the minimum element in the heap, null if the heap
+//  is empty.
+    public E remove();
+
+//  Returns the minimum element in the heap, null if the heap is empty.
+//  The heap is not modified.
+    public E peek();
+
+//  Returns true if an element equal to obj is in the heap, false otherwise.
+//  The heap is not modified.
+    public boolean contains(E obj);
+
+//  The heap is returned to an empty state.
+    public void clear();
+
+//  Returns true if the heap is empty, otherwise false.
+    public boolean isEmpty();
+
+//  Returns the number of elements currently in the heap.
+    public int size();
+}
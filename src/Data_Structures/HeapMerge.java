@@ -0,0 +1,223 @@
+package Data_Structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorting and merging built on BinaryHeap.
+ *
+ * merge() combines k sorted runs into one sorted sequence. The heap holds
+ * one cursor per run, ordered by the next element of the run, so every
+ * element costs O(log k) comparisons. The merge is lazy: elements are read
+ * from the runs only as the merged iterator is advanced, so the runs can
+ * be larger than memory, such as sorted spill files.
+ *
+ * parallelSort() sorts one chunk of an array per worker of a ForkJoinPool,
+ * and then merges the sorted chunks through the heap.
+ *
+ * @author Ruben Ramirez
+ */
+public final class HeapMerge {
+
+    // Chunks smaller than this are not worth a separate task
+    private static final int MIN_CHUNK = 8192;
+
+    private HeapMerge() {
+    }
+
+    /**
+     * Merges sorted runs in their natural ordering.
+     * @param runs, iterators over sorted runs
+     * @return an iterator over every element of the runs, in sorted order
+     */
+    public static <E> Iterator<E> merge(Collection<? extends Iterator<? extends E>> runs) {
+        return merge(runs, null);
+    }
+
+    /**
+     * Merges sorted runs. Equal elements come out in the order of the runs
+     * they are in, so the merge is stable.
+     * @param runs, iterators over runs sorted by comparator
+     * @param comparator, the ordering of the runs, null for their natural
+     * ordering
+     * @return an iterator over every element of the runs, in sorted order
+     */
+    public static <E> Iterator<E> merge(Collection<? extends Iterator<? extends E>> runs,
+                                        Comparator<? super E> comparator) {
+        return new MergeIterator<>(runs, comparator);
+    }
+
+    /**
+     * Sorts an array in its natural ordering using every processor.
+     * @param array, the array to be sorted
+     */
+    public static <E> void parallelSort(E[] array) {
+        parallelSort(array, null);
+    }
+
+    /**
+     * Sorts an array using every processor. The array is split into one
+     * chunk per processor, the chunks are sorted in a ForkJoinPool, and
+     * the sorted chunks are merged through a heap. The sort is stable.
+     * @param array, the array to be sorted
+     * @param comparator, the ordering, null for the natural ordering
+     */
+    public static <E> void parallelSort(E[] array, Comparator<? super E> comparator) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int chunks = Math.min(parallelism, Math.max(array.length / MIN_CHUNK, 1));
+
+        if(chunks == 1) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+
+        int[] bounds = new int[chunks + 1];
+        for(int i = 0; i <= chunks; i++)
+            bounds[i] = (int) ((long) array.length * i / chunks);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SortTask<>(array, bounds, 0, chunks, comparator));
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // Merge from a copy of the sorted chunks back into the array
+        List<E> sorted = Arrays.asList(array.clone());
+        List<Iterator<E>> runs = new ArrayList<>(chunks);
+        for(int i = 0; i < chunks; i++)
+            runs.add(sorted.subList(bounds[i], bounds[i + 1]).iterator());
+
+        Iterator<E> merged = merge(runs, comparator);
+        for(int i = 0; merged.hasNext(); i++)
+            array[i] = merged.next();
+    }
+
+    /**
+     * Sorts the chunks between two chunk numbers, splitting the range in
+     * half until a task is left with a single chunk.
+     */
+    private static class SortTask<E> extends RecursiveAction {
+        private final E[] array;
+        private final int[] bounds;
+        private final int first;
+        private final int last;
+        private final Comparator<? super E> comparator;
+
+        public SortTask(E[] array, int[] bounds, int first, int last,
+                        Comparator<? super E> comparator) {
+            this.array = array;
+            this.bounds = bounds;
+            this.first = first;
+            this.last = last;
+            this.comparator = comparator;
+        }
+
+        protected void compute() {
+            if(last - first == 1) {
+                Arrays.sort(array, bounds[first], bounds[last], comparator);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new SortTask<>(array, bounds, first, middle, comparator),
+                      new SortTask<>(array, bounds, middle, last, comparator));
+        }
+    }
+
+    /**
+     * Position in a run: the next element of the run, and the number of
+     * the run to break ties between runs.
+     */
+    private static class Cursor<E> {
+        private final Iterator<? extends E> run;
+        private final int index;
+        private E head;
+
+        public Cursor(Iterator<? extends E> run, int index) {
+            this.run = run;
+            this.index = index;
+        }
+
+        // Moves to the next element, returns false at the end of the run
+        public boolean advance() {
+            if(!run.hasNext())
+                return false;
+            this.head = run.next();
+            return true;
+        }
+    }
+
+    /**
+     * Lazy k way merge. The heap holds a cursor for every run that still
+     * has elements, and the cursor with the smallest head is on top.
+     */
+    private static class MergeIterator<E> implements Iterator<E> {
+        private final BinaryHeap<Cursor<E>> heap;
+
+        public MergeIterator(Collection<? extends Iterator<? extends E>> runs,
+                             final Comparator<? super E> comparator) {
+            this.heap = new BinaryHeap<>(Math.max(runs.size(), 1), new Comparator<Cursor<E>>() {
+                public int compare(Cursor<E> a, Cursor<E> b) {
+                    int cmp;
+                    if(comparator == null)
+                        cmp = ((Comparable<? super E>) a.head).compareTo(b.head);
+                    else
+                        cmp = comparator.compare(a.head, b.head);
+                    if(cmp != 0)
+                        return cmp;
+                    return a.index < b.index ? -1 : (a.index == b.index ? 0 : 1);
+                }
+            });
+
+            List<Cursor<E>> cursors = new ArrayList<>(runs.size());
+            int index = 0;
+            for(Iterator<? extends E> run : runs) {
+                Cursor<E> cursor = new Cursor<>(run, index++);
+                if(cursor.advance())
+                    cursors.add(cursor);
+            }
+            heap.addAll(cursors);
+        }
+
+        /**
+         * Checks if there are more elements to traverse
+         * @return true if there are more elements, false otherwise
+         */
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        /**
+         * Returns the smallest element left in the runs
+         * @return E, the next element in sorted order
+         */
+        public E next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            Cursor<E> cursor = heap.peek();
+            E obj = cursor.head;
+
+            // The cursor goes back in with its next element in one pass
+            if(cursor.advance())
+                heap.replace(cursor);
+            else
+                heap.remove();
+            return obj;
+        }
+
+        /**
+         * Unsupported method.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException("Method not supported.");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package Data_Structures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Min heap that keeps track of the position of every element, so the
+ * priority of an element that is already in the heap can be changed in
+ * O(log n), and any element can be removed in O(log n). contains() runs
+ * in constant time.
+ *
+ * Elements are looked up with equals() and hashCode(), so the heap can't
+ * hold duplicates, and equals() and hashCode() must not depend on the
+ * fields that decide the priority. To change a priority, update the
+ * element and then call decreaseKey(), increaseKey() or update().
+ * Positions are kept in an ObjectIntHashTable, so moving an element
+ * inside the heap does not box its index.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements in the heap
+ */
+public class IndexedBinaryHeap<E> extends BinaryHeap<E> {
+
+    // Position returned for elements that are not in the heap
+    private static final int NOT_FOUND = -1;
+
+    private final ObjectIntHashTable<Object> positions;
+
+    public IndexedBinaryHeap() {
+        this(30, null);
+    }
+
+    public IndexedBinaryHeap(int size) {
+        this(size, null);
+    }
+
+    public IndexedBinaryHeap(Comparator<? super E> comparator) {
+        this(30, comparator);
+    }
+
+    public IndexedBinaryHeap(int size, Comparator<? super E> comparator) {
+        this(size, 2, comparator);
+    }
+
+    public IndexedBinaryHeap(int size, int arity, Comparator<? super E> comparator) {
+        super(size, arity, comparator);
+        this.positions = new ObjectIntHashTable<>(size, NOT_FOUND);
+    }
+
+    /**
+     * Adds a new object to the heap
+     * @param obj, the object to be added to the heap
+     * @return true if the object was added, false if it is already in
+     * the heap
+     */
+    public boolean add(E obj) {
+        if(positions.containsKey(obj))
+            return false;
+        return super.add(obj);
+    }
+
+    /**
+     * Adds every element of a collection that is not in the heap yet.
+     * @param elements, the elements to be added to the heap
+     * @return true if the heap changed
+     */
+    public boolean addAll(Collection<? extends E> elements) {
+        List<E> unique = new ArrayList<>(elements.size());
+
+        // Reserve an entry for each new element, its position is set when
+        // the element gets placed in the heap
+        for(E obj : elements) {
+            if(!positions.containsKey(obj)) {
+                positions.add(obj, NOT_FOUND);
+                unique.add(obj);
+            }
+        }
+        return super.addAll(unique);
+    }
+
+    /**
+     * Adds every element of an array that is not in the heap yet.
+     * @param elements, the elements to be added to the heap
+     * @return true if the heap changed
+     */
+    public boolean addAll(E[] elements) {
+        List<E> list = new ArrayList<>(elements.length);
+        for(E obj : elements)
+            list.add(obj);
+        return addAll(list);
+    }
+
+    /**
+     * Removes and returns the minimum element in the heap
+     * @return the minimum element, null if heap is empty
+     */
+    public E remove() {
+        E tmp = super.remove();
+
+        if(tmp != null)
+            positions.remove(tmp);
+        return tmp;
+    }
+
+    /**
+     * Removes the minimum element and adds a new object in a single pass:
+     * the object takes the place of the minimum and gets moved down once.
+     * The object may be equal to the minimum, to put it back with a new
+     * priority.
+     * @param obj, the object to be added to the heap
+     * @return the minimum element before the call, null if the heap was
+     * empty
+     * @throws IllegalArgumentException if obj is in the heap and is not
+     * the minimum element
+     */
+    public E replace(E obj) {
+        int index = positions.getValue(obj);
+
+        if(index > 0)
+            throw new IllegalArgumentException("Element is already in the heap.");
+        if(!isEmpty())
+            positions.remove(peek());
+        return super.replace(obj);
+    }
+
+    /**
+     * Removes a given element from the heap
+     * @param obj, the element to be removed
+     * @return true if the element was removed, false if it is not in
+     * the heap
+     */
+    public boolean remove(E obj) {
+        int index = positions.getValue(obj);
+
+        if(index == NOT_FOUND)
+            return false;
+        removeAt(index);
+        positions.remove(obj);
+        return true;
+    }
+
+    /**
+     * Checks if a value is stored in the heap
+     * @param obj, the object to be searched for
+     * @return true if the item is in the heap, false otherwise
+     */
+    public boolean contains(E obj) {
+        return positions.containsKey(obj);
+    }
+
+    /**
+     * Restores the heap order after the priority of an element went down,
+     * so that it now comes earlier in the heap.
+     * @param obj, the element whose priority changed
+     * @return true if the element is in the heap, false otherwise
+     */
+    public boolean decreaseKey(E obj) {
+        int index = positions.getValue(obj);
+
+        if(index == NOT_FOUND)
+            return false;
+        trickleUp(index);
+        return true;
+    }
+
+    /**
+     * Restores the heap order after the priority of an element went up,
+     * so that it now comes later in the heap.
+     * @param obj, the element whose priority changed
+     * @return true if the element is in the heap, false otherwise
+     */
+    public boolean increaseKey(E obj) {
+        int index = positions.getValue(obj);
+
+        if(index == NOT_FOUND)
+            return false;
+        trickleDown(index);
+        return true;
+    }
+
+    /**
+     * Restores the heap order after the priority of an element changed
+     * in either direction.
+     * @param obj, the element whose priority changed
+     * @return true if the element is in the heap, false otherwise
+     */
+    public boolean update(E obj) {
+        int index = positions.getValue(obj);
+
+        if(index == NOT_FOUND)
+            return false;
+        if(trickleUp(index) == index)
+            trickleDown(index);
+        return true;
+    }
+
+    /**
+     * Resets the heap to an empty position. The position table keeps its
+     * size, like the heap arrays.
+     */
+    public void clear() {
+        super.clear();
+        positions.clear();
+    }
+
+    /**
+     * Records the new position of an element.
+     */
+    void placed(Object obj, int index) {
+        positions.add(obj, index);
+    }
+}
@@ -0,0 +1,231 @@
+package Data_Structures;
+
+/**
+ * Hash Table specialized for int keys and int values. Keys and values are
+ * stored in two flat int arrays with linear probing, so there is no boxing
+ * and no object allocated per entry. A key of 0 marks an empty slot, the
+ * real key 0 is kept in a separate field. Probing, growth and deletion
+ * follow FlatHashTable.
+ *
+ * Lookups of missing keys return the no value sentinel chosen when the
+ * table is created, 0 by default. The keys and values can be walked with
+ * a Cursor.
+ *
+ * @author Ruben Ramirez
+ */
+
+public class IntIntHashTable extends FlatHashTable {
+
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int zeroValue;
+    private final int noValue;
+
+    public IntIntHashTable(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * Creates a table with a custom value for missing keys.
+     * @param maxSize, the expected number of elements.
+     * @param noValue, the value returned by getValue() for missing keys.
+     */
+    public IntIntHashTable(int maxSize, int noValue) {
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+        this.noValue = noValue;
+        this.numElements = 0;
+        allocate(capacityFor(maxSize));
+    }
+
+    /**
+     * Adds a key and a value to the table. An existing value stored
+     * under the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the key and value are successfully added.
+     * @throws IllegalStateException if the key is new and the table is
+     * full at its largest size.
+     */
+    public boolean add(int key, int value) {
+        if(key == EMPTY) {
+            zeroKeyChanged(true);
+            this.zeroValue = value;
+            return true;
+        }
+
+        int index = getIndex(key);
+        int tmp;
+
+        // Probe until the key or an empty slot is found
+        while((tmp = keys[index]) != EMPTY) {
+            if(tmp == key) {
+                values[index] = value;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        checkFull();
+        keys[index] = key;
+        values[index] = value;
+        slotAdded();
+        return true;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     * @param key, the key that is to be hashed.
+     * @return the index that was generated from the key.
+     */
+    public int getIndex(int key) {
+        return HashStrategy.mix(key) & mask;
+    }
+
+    /**
+     * Removes a key from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if a key got removed, false otherwise.
+     */
+    public boolean remove(int key) {
+        if(key == EMPTY) {
+            if(!hasZeroKey)
+                return false;
+            zeroKeyChanged(false);
+            return true;
+        }
+
+        int index = find(key);
+
+        if(index < 0)
+            return false;
+        slotRemoved(index);
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, the no value
+     * sentinel if there is no element with the given key.
+     */
+    public int getValue(int key) {
+        if(key == EMPTY)
+            return hasZeroKey ? zeroValue : noValue;
+
+        int index = find(key);
+
+        if(index < 0)
+            return noValue;
+        return values[index];
+    }
+
+    /**
+     * Tests whether a key is stored in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if the key is in the table, false otherwise.
+     */
+    public boolean containsKey(int key) {
+        if(key == EMPTY)
+            return hasZeroKey;
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns a cursor over the keys and values of the table.
+     * @return a cursor placed before the first key.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public void resize(int newSize) {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        int index;
+
+        allocate(Math.max(tableSizeFor(newSize), capacityFor(numElements)));
+
+        // Rehash every element in the table
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != EMPTY) {
+                index = getIndex(oldKeys[i]);
+                while(keys[index] != EMPTY)
+                    index = (index + 1) & mask;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding a key.
+     * @param key, a key other than the empty marker.
+     * @return the index of the key, -1 if the key is not in the table.
+     */
+    private int find(int key) {
+        int index = getIndex(key);
+        int tmp;
+
+        while((tmp = keys[index]) != EMPTY) {
+            if(tmp == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    boolean isFree(int slot) {
+        return keys[slot] == EMPTY;
+    }
+
+    int homeOf(int slot) {
+        return getIndex(keys[slot]);
+    }
+
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    void clearSlot(int slot) {
+        keys[slot] = EMPTY;
+    }
+
+    void allocateSlots(int size) {
+        this.keys = new int[size];
+        this.values = new int[size];
+    }
+
+    /**
+     * Cursor over the keys and values of the table.
+     *
+     *   IntIntHashTable.Cursor cursor = table.cursor();
+     *   while(cursor.hasNext()) {
+     *       cursor.advance();
+     *       use(cursor.key(), cursor.value());
+     *   }
+     */
+    public final class Cursor extends SlotCursor {
+
+        private Cursor() {
+        }
+
+        /**
+         * Returns the key the cursor is on.
+         * @return the current key.
+         */
+        public int key() {
+            return atZeroKey() ? EMPTY : keys[slot()];
+        }
+
+        /**
+         * Returns the value of the key the cursor is on.
+         * @return the current value.
+         */
+        public int value() {
+            return atZeroKey() ? zeroValue : values[slot()];
+        }
+    }
+}
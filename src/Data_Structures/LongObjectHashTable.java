@@ -0,0 +1,222 @@
+package Data_Structures;
+
+/**
+ * Hash Table specialized for long keys and object values. Keys are stored
+ * in a flat long array next to a value array with linear probing, so keys
+ * are never boxed and no object is allocated per entry. A key of 0 marks
+ * an empty slot, the real key 0 is kept in a separate field. Probing, growth and deletion
+ * follow FlatHashTable.
+ *
+ * Lookups of missing keys return null. The keys and values can be walked
+ * with a Cursor.
+ *
+ * @author Ruben Ramirez
+ * @param <V> the type of values in the table
+ */
+
+public class LongObjectHashTable<V> extends FlatHashTable {
+
+    private static final int EMPTY = 0;
+
+    private long[] keys;
+    private Object[] values;
+    private V zeroValue;
+
+    public LongObjectHashTable(int maxSize) {
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+        this.numElements = 0;
+        allocate(capacityFor(maxSize));
+    }
+
+    /**
+     * Adds a key and a value to the table. An existing value stored
+     * under the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the key and value are successfully added.
+     * @throws IllegalStateException if the key is new and the table is
+     * full at its largest size.
+     */
+    public boolean add(long key, V value) {
+        if(key == EMPTY) {
+            zeroKeyChanged(true);
+            this.zeroValue = value;
+            return true;
+        }
+
+        int index = getIndex(key);
+        long tmp;
+
+        // Probe until the key or an empty slot is found
+        while((tmp = keys[index]) != EMPTY) {
+            if(tmp == key) {
+                values[index] = value;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        checkFull();
+        keys[index] = key;
+        values[index] = value;
+        slotAdded();
+        return true;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     * @param key, the key that is to be hashed.
+     * @return the index that was generated from the key.
+     */
+    public int getIndex(long key) {
+        return (int) HashStrategy.mix(key) & mask;
+    }
+
+    /**
+     * Removes a key from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if a key got removed, false otherwise.
+     */
+    public boolean remove(long key) {
+        if(key == EMPTY) {
+            if(!hasZeroKey)
+                return false;
+            zeroKeyChanged(false);
+            this.zeroValue = null;
+            return true;
+        }
+
+        int index = find(key);
+
+        if(index < 0)
+            return false;
+        slotRemoved(index);
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, null
+     * if there is no element with the given key.
+     */
+    public V getValue(long key) {
+        if(key == EMPTY)
+            return zeroValue;
+
+        int index = find(key);
+
+        if(index < 0)
+            return null;
+        return (V) values[index];
+    }
+
+    /**
+     * Tests whether a key is stored in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if the key is in the table, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        if(key == EMPTY)
+            return hasZeroKey;
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns a cursor over the keys and values of the table.
+     * @return a cursor placed before the first key.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public void resize(int newSize) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int index;
+
+        allocate(Math.max(tableSizeFor(newSize), capacityFor(numElements)));
+
+        // Rehash every element in the table
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != EMPTY) {
+                index = getIndex(oldKeys[i]);
+                while(keys[index] != EMPTY)
+                    index = (index + 1) & mask;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding a key.
+     * @param key, a key other than the empty marker.
+     * @return the index of the key, -1 if the key is not in the table.
+     */
+    private int find(long key) {
+        int index = getIndex(key);
+        long tmp;
+
+        while((tmp = keys[index]) != EMPTY) {
+            if(tmp == key)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    boolean isFree(int slot) {
+        return keys[slot] == EMPTY;
+    }
+
+    int homeOf(int slot) {
+        return getIndex(keys[slot]);
+    }
+
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    void clearSlot(int slot) {
+        keys[slot] = EMPTY;
+        values[slot] = null;
+    }
+
+    void allocateSlots(int size) {
+        this.keys = new long[size];
+        this.values = new Object[size];
+    }
+
+    /**
+     * Cursor over the keys and values of the table.
+     *
+     *   LongObjectHashTable<V>.Cursor cursor = table.cursor();
+     *   while(cursor.hasNext()) {
+     *       cursor.advance();
+     *       use(cursor.key(), cursor.value());
+     *   }
+     */
+    public final class Cursor extends SlotCursor {
+
+        private Cursor() {
+        }
+
+        /**
+         * Returns the key the cursor is on.
+         * @return the current key.
+         */
+        public long key() {
+            return atZeroKey() ? EMPTY : keys[slot()];
+        }
+
+        /**
+         * Returns the value of the key the cursor is on.
+         * @return the current value.
+         */
+        public V value() {
+            return atZeroKey() ? zeroValue : (V) values[slot()];
+        }
+    }
+}
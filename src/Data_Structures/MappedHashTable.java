@@ -0,0 +1,264 @@
+package Data_Structures;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Persistent Hash Table stored in a memory mapped file. The slot layout of
+ * OffHeapHashTable is kept in the file itself, so reopening a table only
+ * maps the file: no entry is read or rehashed, and the operating system
+ * loads pages lazily as they are used.
+ *
+ * add() and remove() write straight into the mapped file. The operating
+ * system flushes dirty pages on its own schedule; force() makes every
+ * write so far durable. If the process stops without close() or force(),
+ * the element count is rebuilt by scanning the slots on the next open.
+ *
+ * Growing the table writes the rehashed slots into a temporary file next
+ * to the table file, and then replaces the table file with it.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the table
+ * @param <V> the type of values in the table
+ */
+
+public class MappedHashTable<K, V> extends OffHeapHashTable<K, V> {
+
+    private static final long MAGIC = 0x4d61707048617368L;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    // Header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int KEY_SIZE_OFFSET = 12;
+    private static final int VALUE_SIZE_OFFSET = 16;
+    private static final int TABLE_SIZE_OFFSET = 20;
+    private static final int NUM_ELEMENTS_OFFSET = 24;
+    private static final int CLEAN_OFFSET = 28;
+
+    private final File file;
+    private final File resizeFile;
+    private final int keySize;
+    private final int valueSize;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private FileChannel newChannel;
+    private MappedByteBuffer newHeader;
+    private boolean clean;
+
+    /**
+     * Opens the table stored in a file, or creates a new table if the file
+     * does not exist yet.
+     * @param file, the file holding the table.
+     * @param maxSize, the expected number of elements of a new table.
+     * Ignored when an existing table is opened.
+     * @param keySerializer, serializer of the keys.
+     * @param valueSerializer, serializer of the values.
+     * @throws IOException if the file can't be opened or does not hold
+     * a table with the same key and value sizes.
+     */
+    public MappedHashTable(File file, int maxSize, Serializer<K> keySerializer,
+                           Serializer<V> valueSerializer) throws IOException {
+        super(keySerializer, valueSerializer);
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+
+        this.file = file;
+        this.resizeFile = new File(file.getPath() + ".resize");
+        this.keySize = keySerializer.size();
+        this.valueSize = valueSerializer.size();
+
+        try {
+            boolean exists = file.exists() && file.length() >= HEADER_BYTES;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+            if(exists)
+                openExisting();
+            else {
+                int tableSize = capacityFor(maxSize);
+                writeHeader(header, tableSize);
+                install(mapSlots(channel, tableSize), 0);
+                force();
+            }
+        }
+        catch(IOException | RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    /**
+     * Flushes every change made to the table to the file. Once force()
+     * returns, the table survives a crash of the process or the machine.
+     */
+    public void force() {
+        if(slots() == null)
+            throw new IllegalStateException("Table is closed.");
+        ByteBuffer[] chunks = slots().chunks;
+
+        for(int i = 0; i < chunks.length; i++)
+            ((MappedByteBuffer) chunks[i]).force();
+        header.putInt(NUM_ELEMENTS_OFFSET, size());
+        header.putInt(CLEAN_OFFSET, 1);
+        header.force();
+        this.clean = true;
+    }
+
+    /**
+     * Flushes the table to the file and unmaps it.
+     */
+    public void close() {
+        if(slots() != null) {
+            force();
+            super.close();
+        }
+        closeQuietly();
+    }
+
+    /**
+     * Returns the file holding the table.
+     * @return the table file.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Maps the slots of a resized table from a temporary file. The file
+     * replaces the table file once every element was copied.
+     */
+    SlotArray newSlots(int tableSize) {
+        try {
+            Files.deleteIfExists(resizeFile.toPath());
+            this.newChannel = new RandomAccessFile(resizeFile, "rw").getChannel();
+            this.newHeader = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            writeHeader(newHeader, tableSize);
+            return mapSlots(newChannel, tableSize);
+        }
+        catch(IOException e) {
+            throw new IllegalStateException("Could not grow " + file, e);
+        }
+    }
+
+    /**
+     * Makes the resized table durable, unmaps the old table and moves the
+     * temporary file over the table file.
+     */
+    void replaceSlots(SlotArray oldSlots, SlotArray newSlots) {
+        for(int i = 0; i < newSlots.chunks.length; i++)
+            ((MappedByteBuffer) newSlots.chunks[i]).force();
+        newHeader.putInt(NUM_ELEMENTS_OFFSET, size());
+        newHeader.putInt(CLEAN_OFFSET, 1);
+        newHeader.force();
+
+        releaseSlots(oldSlots);
+        free(header);
+        try {
+            channel.close();
+            Files.move(resizeFile.toPath(), file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e) {
+            throw new IllegalStateException("Could not grow " + file, e);
+        }
+        this.channel = newChannel;
+        this.header = newHeader;
+        this.newChannel = null;
+        this.newHeader = null;
+        this.clean = true;
+    }
+
+    /**
+     * Marks the file as not flushed before the first write after it was
+     * opened or forced. The flag is forced to disk right away, otherwise
+     * the operating system could write the slot pages back before the
+     * header page, and a crash would leave a clean flag over modified
+     * slots. That costs one flush per clean to dirty transition.
+     */
+    void beforeWrite() {
+        if(clean) {
+            header.putInt(CLEAN_OFFSET, 0);
+            header.force();
+            this.clean = false;
+        }
+    }
+
+    /**
+     * Keeps the element count in the header up to date.
+     */
+    void sizeChanged() {
+        header.putInt(NUM_ELEMENTS_OFFSET, size());
+    }
+
+    /**
+     * Checks the header of an existing file and maps its slots.
+     */
+    private void openExisting() throws IOException {
+        if(header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION)
+            throw new IOException(file + " does not hold a hash table.");
+        if(header.getInt(KEY_SIZE_OFFSET) != keySize ||
+           header.getInt(VALUE_SIZE_OFFSET) != valueSize)
+            throw new IOException(file + " holds keys or values of a different size.");
+
+        int tableSize = header.getInt(TABLE_SIZE_OFFSET);
+        int numElements = header.getInt(NUM_ELEMENTS_OFFSET);
+        SlotArray slots = mapSlots(channel, tableSize);
+
+        // The count may be stale if the table was not flushed
+        if(header.getInt(CLEAN_OFFSET) != 1) {
+            numElements = 0;
+            for(int i = 0; i < tableSize; i++) {
+                if(slots.hash(i) != 0)
+                    numElements++;
+            }
+        }
+        install(slots, numElements);
+        this.clean = header.getInt(CLEAN_OFFSET) == 1;
+        sizeChanged();
+    }
+
+    private void writeHeader(ByteBuffer buffer, int tableSize) {
+        buffer.putLong(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(KEY_SIZE_OFFSET, keySize);
+        buffer.putInt(VALUE_SIZE_OFFSET, valueSize);
+        buffer.putInt(TABLE_SIZE_OFFSET, tableSize);
+        buffer.putInt(NUM_ELEMENTS_OFFSET, 0);
+        buffer.putInt(CLEAN_OFFSET, 0);
+    }
+
+    /**
+     * Maps the slot chunks of a table file. Chunks that lie past the end
+     * of the file extend it, and the new bytes read as zero.
+     */
+    private SlotArray mapSlots(FileChannel fileChannel, int tableSize) throws IOException {
+        SlotArray slots = new SlotArray(tableSize, slotSize());
+        long chunkBytes = slots.chunkBytes();
+
+        for(int i = 0; i < slots.chunks.length; i++)
+            slots.chunks[i] = fileChannel.map(FileChannel.MapMode.READ_WRITE,
+                                              HEADER_BYTES + i * chunkBytes, chunkBytes);
+        return slots;
+    }
+
+    private void closeQuietly() {
+        free(header);
+        this.header = null;
+        try {
+            if(channel != null)
+                channel.close();
+        }
+        catch(IOException ignored) {
+            // Nothing left to flush
+        }
+        this.channel = null;
+    }
+}
@@ -0,0 +1,228 @@
+package Data_Structures;
+
+import java.util.Arrays;
+
+/**
+ * Hash Table specialized for object keys and int values. Keys and values
+ * are stored in two flat arrays with linear probing, so the values are not
+ * boxed and no object is allocated per entry. A null key marks an empty
+ * slot, so keys can't be null. Probing, growth and deletion follow
+ * FlatHashTable.
+ *
+ * Lookups of missing keys return the no value sentinel chosen when the
+ * table is created, 0 by default. The keys and values can be walked with
+ * a Cursor.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the table
+ */
+
+public class ObjectIntHashTable<K> extends FlatHashTable {
+
+    private Object[] keys;
+    private int[] values;
+    private final int noValue;
+
+    public ObjectIntHashTable(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * Creates a table with a custom value for missing keys.
+     * @param maxSize, the expected number of elements.
+     * @param noValue, the value returned by getValue() for missing keys.
+     */
+    public ObjectIntHashTable(int maxSize, int noValue) {
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+        this.noValue = noValue;
+        this.numElements = 0;
+        allocate(capacityFor(maxSize));
+    }
+
+    /**
+     * Adds a key and a value to the table. An existing value stored
+     * under the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the key and value are successfully added.
+     * @throws IllegalStateException if the key is new and the table is
+     * full at its largest size.
+     */
+    public boolean add(K key, int value) {
+        if(key == null)
+            throw new IllegalArgumentException("Key can't be null.");
+
+        int index = getIndex(key);
+        Object tmp;
+
+        // Probe until the key or an empty slot is found
+        while((tmp = keys[index]) != null) {
+            if(tmp == key || tmp.equals(key)) {
+                values[index] = value;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        checkFull();
+        keys[index] = key;
+        values[index] = value;
+        slotAdded();
+        return true;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     * @param key, the key that is to be hashed.
+     * @return the index that was generated from the key.
+     */
+    public int getIndex(Object key) {
+        return HashStrategy.mix(key.hashCode()) & mask;
+    }
+
+    /**
+     * Removes a key from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if a key got removed, false otherwise.
+     */
+    public boolean remove(Object key) {
+        int index = find(key);
+
+        if(index < 0)
+            return false;
+        slotRemoved(index);
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a given key.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, the no value
+     * sentinel if there is no element with the given key.
+     */
+    public int getValue(Object key) {
+        int index = find(key);
+
+        if(index < 0)
+            return noValue;
+        return values[index];
+    }
+
+    /**
+     * Tests whether a key is stored in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if the key is in the table, false otherwise.
+     */
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Removes every key. The arrays are kept at their current size.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        this.numElements = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Returns a cursor over the keys and values of the table.
+     * @return a cursor placed before the first key.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public void resize(int newSize) {
+        Object[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        int index;
+
+        allocate(Math.max(tableSizeFor(newSize), capacityFor(numElements)));
+
+        // Rehash every element in the table
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != null) {
+                index = getIndex(oldKeys[i]);
+                while(keys[index] != null)
+                    index = (index + 1) & mask;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding a key.
+     * @param key, the key that is going to be searched for.
+     * @return the index of the key, -1 if the key is not in the table.
+     */
+    private int find(Object key) {
+        if(key == null)
+            return -1;
+
+        int index = getIndex(key);
+        Object tmp;
+
+        while((tmp = keys[index]) != null) {
+            if(tmp == key || tmp.equals(key))
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    boolean isFree(int slot) {
+        return keys[slot] == null;
+    }
+
+    int homeOf(int slot) {
+        return getIndex(keys[slot]);
+    }
+
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+    }
+
+    void clearSlot(int slot) {
+        keys[slot] = null;
+    }
+
+    void allocateSlots(int size) {
+        this.keys = new Object[size];
+        this.values = new int[size];
+    }
+
+    /**
+     * Cursor over the keys and values of the table.
+     *
+     *   ObjectIntHashTable<K>.Cursor cursor = table.cursor();
+     *   while(cursor.hasNext()) {
+     *       cursor.advance();
+     *       use(cursor.key(), cursor.value());
+     *   }
+     */
+    public final class Cursor extends SlotCursor {
+
+        private Cursor() {
+        }
+
+        /**
+         * Returns the key the cursor is on.
+         * @return the current key.
+         */
+        public K key() {
+            return (K) keys[slot()];
+        }
+
+        /**
+         * Returns the value of the key the cursor is on.
+         * @return the current value.
+         */
+        public int value() {
+            return values[slot()];
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package Data_Structures;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Generic Hash Table that keeps its entries outside of the Java heap.
+ * Keys and values are serialized into fixed width slots of direct
+ * ByteBuffers, so the garbage collector never has to scan the entries no
+ * matter how many there are. Collisions are resolved with linear probing
+ * and removal uses backward shift deletion.
+ *
+ * Each slot holds a 4 byte hash followed by the key and value bytes. Keys
+ * are hashed and compared by their serialized bytes. The memory is split
+ * into chunks of at most 1 GB, so tables can grow past the 2 GB limit of
+ * a single buffer, up to 2^30 slots.
+ *
+ * The memory is released by close(). Using the table afterwards throws
+ * IllegalStateException. The table is not thread safe.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the table
+ * @param <V> the type of values in the table
+ */
+
+public class OffHeapHashTable<K, V> implements AutoCloseable {
+
+    static final double MAX_LOAD = .75;
+    static final int HASH_BYTES = 4;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int keySize;
+    private final int slotSize;
+    private final ByteBuffer keyBuffer;
+    private SlotArray slots;
+    private int numElements;
+    private int threshold;
+
+    public OffHeapHashTable(int maxSize, Serializer<K> keySerializer,
+                            Serializer<V> valueSerializer) {
+        this(keySerializer, valueSerializer);
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+        install(newSlots(capacityFor(maxSize)), 0);
+    }
+
+    /**
+     * Creates a table without any memory. Subclasses have to install a
+     * SlotArray before the table is used.
+     */
+    OffHeapHashTable(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        if(keySerializer == null || valueSerializer == null)
+            throw new IllegalArgumentException("Serializers can't be null.");
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.keySize = keySerializer.size();
+        this.slotSize = HASH_BYTES + keySize + valueSerializer.size();
+        this.keyBuffer = ByteBuffer.allocate(keySize);
+    }
+
+    /**
+     * Adds a key and a value to the table. An existing value stored under
+     * the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the key and value are successfully added.
+     * @throws IllegalStateException if the key is new and the table is
+     * full at its largest size.
+     */
+    public boolean add(K key, V value) {
+        int hash = serializeKey(key);
+        int slot = hash & slots.mask;
+        int stored;
+
+        // Probe until the key or an empty slot is found
+        while((stored = slots.hash(slot)) != 0) {
+            if(stored == hash && keyEquals(slot))
+                break;
+            slot = (slot + 1) & slots.mask;
+        }
+
+        // The largest table can't grow, and a full one would probe forever
+        if(stored == 0 && numElements >= threshold && slots.tableSize == MAX_TABLE_SIZE)
+            throw new IllegalStateException("Table is full.");
+
+        ByteBuffer chunk = slots.chunk(slot);
+        int offset = slots.offset(slot);
+        beforeWrite();
+        if(stored == 0) {
+            chunk.putInt(offset, hash);
+            for(int i = 0; i < keySize; i++)
+                chunk.put(offset + HASH_BYTES + i, keyBuffer.get(i));
+        }
+        valueSerializer.write(value, chunk, offset + HASH_BYTES + keySize);
+
+        if(stored == 0) {
+            this.numElements++;
+            sizeChanged();
+
+            // Create a larger table if load factor is too large
+            if(numElements > threshold && slots.tableSize < MAX_TABLE_SIZE)
+                resize(slots.tableSize * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a key from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if a key got removed, false otherwise.
+     */
+    public boolean remove(K key) {
+        int slot = find(key);
+
+        if(slot < 0)
+            return false;
+        beforeWrite();
+        deleteSlot(slot);
+        this.numElements--;
+        sizeChanged();
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a given key. The value gets
+     * deserialized on every call.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, null
+     * if there is no element with the given key.
+     */
+    public V getValue(K key) {
+        int slot = find(key);
+
+        if(slot < 0)
+            return null;
+        return valueSerializer.read(slots.chunk(slot),
+                                    slots.offset(slot) + HASH_BYTES + keySize);
+    }
+
+    /**
+     * Tests whether a key is stored in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if the key is in the table, false otherwise.
+     */
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the number of keys currently in the hash table.
+     * @return the number of keys currently in the hash table.
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /**
+     * Test whether the hash table is empty.
+     * @return true if the table is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /**
+     * Returns the current load factor value.
+     * Load factor = number of elements / table size
+     * @return the current value of the load factor.
+     */
+    public double loadFactor() {
+        checkOpen();
+        return (double) numElements / slots.tableSize;
+    }
+
+    /**
+     * Returns the number of bytes of off heap memory used by the table.
+     * @return the size of the slot memory in bytes.
+     */
+    public long memoryUsage() {
+        checkOpen();
+        return (long) slots.tableSize * slotSize;
+    }
+
+    /**
+     * Resizes the hash table. The size gets rounded up to a power of two
+     * that can hold the current elements, and every slot gets copied into
+     * the new memory. The old memory is released right away.
+     * @param newSize, the number of slots of the new table.
+     */
+    public void resize(int newSize) {
+        checkOpen();
+        SlotArray oldSlots = this.slots;
+        SlotArray newSlots = newSlots(Math.max(tableSizeFor(newSize),
+                                               capacityFor(numElements)));
+        int stored, slot;
+
+        // Rehash every element in the table
+        for(int i = 0; i < oldSlots.tableSize; i++) {
+            if((stored = oldSlots.hash(i)) != 0) {
+                slot = stored & newSlots.mask;
+                while(newSlots.hash(slot) != 0)
+                    slot = (slot + 1) & newSlots.mask;
+                copySlot(oldSlots, i, newSlots, slot);
+            }
+        }
+        replaceSlots(oldSlots, newSlots);
+        install(newSlots, numElements);
+    }
+
+    /**
+     * Releases the off heap memory of the table. Calling close() more than
+     * once has no effect.
+     */
+    public void close() {
+        if(slots != null) {
+            releaseSlots(slots);
+            this.slots = null;
+            this.numElements = 0;
+        }
+    }
+
+    /**
+     * Allocates zeroed memory for a table of the given size. Subclasses
+     * can store the slots somewhere else, like in a mapped file.
+     * @param tableSize, the number of slots, a power of two.
+     * @return the new slot memory.
+     */
+    SlotArray newSlots(int tableSize) {
+        SlotArray newSlots = new SlotArray(tableSize, slotSize);
+        for(int i = 0; i < newSlots.chunks.length; i++)
+            newSlots.chunks[i] = ByteBuffer.allocateDirect(newSlots.chunkBytes());
+        return newSlots;
+    }
+
+    /**
+     * Called by resize() once every element was copied into the new slots.
+     * @param oldSlots, the memory that is no longer used.
+     * @param newSlots, the memory that replaces it.
+     */
+    void replaceSlots(SlotArray oldSlots, SlotArray newSlots) {
+        releaseSlots(oldSlots);
+    }
+
+    /**
+     * Releases the memory of a slot array.
+     * @param oldSlots, the memory to be released.
+     */
+    void releaseSlots(SlotArray oldSlots) {
+        for(int i = 0; i < oldSlots.chunks.length; i++) {
+            free(oldSlots.chunks[i]);
+            oldSlots.chunks[i] = null;
+        }
+    }
+
+    /**
+     * Called before add() or remove() write to the slots.
+     */
+    void beforeWrite() {
+    }
+
+    /**
+     * Called every time the number of elements changes.
+     */
+    void sizeChanged() {
+    }
+
+    /**
+     * Makes a slot array the memory of the table.
+     * @param newSlots, the memory holding the elements.
+     * @param numElements, the number of elements stored in it.
+     */
+    void install(SlotArray newSlots, int numElements) {
+        this.slots = newSlots;
+        this.numElements = numElements;
+        this.threshold = (int) (newSlots.tableSize * MAX_LOAD);
+    }
+
+    SlotArray slots() {
+        return this.slots;
+    }
+
+    int slotSize() {
+        return this.slotSize;
+    }
+
+    /**
+     * Returns the table size needed to hold a number of elements
+     * without going over the maximum load factor.
+     * @param numElements, the number of elements to be held.
+     * @return a power of two table size.
+     */
+    static int capacityFor(int numElements) {
+        return tableSizeFor((int) Math.min((long) (numElements / MAX_LOAD) + 1,
+                MAX_TABLE_SIZE));
+    }
+
+    /**
+     * Releases the memory of a direct or mapped buffer without waiting
+     * for the garbage collector. Falls back to the garbage collector if
+     * the running JVM does not allow it.
+     * @param buffer, the buffer to be released.
+     */
+    static void free(ByteBuffer buffer) {
+        if(buffer == null || !buffer.isDirect())
+            return;
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), buffer);
+        }
+        catch(Exception e) {
+            try {
+                // Java 8 and earlier
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+            catch(Exception ignored) {
+                // Memory gets released when the buffer is collected
+            }
+        }
+    }
+
+    /**
+     * Serializes a key into the key buffer and hashes its bytes.
+     * @param key, the key to be serialized.
+     * @return the hash of the key with the highest bit set, so a stored
+     * hash is never 0, which marks empty slots.
+     */
+    private int serializeKey(K key) {
+        checkOpen();
+        keySerializer.write(key, keyBuffer, 0);
+
+        // Murmur3 over the key bytes
+        int h = 0x9747b28c;
+        int i = 0;
+        for(; i + 4 <= keySize; i += 4) {
+            int k = keyBuffer.getInt(i) * 0xcc9e2d51;
+            k = Integer.rotateLeft(k, 15) * 0x1b873593;
+            h = Integer.rotateLeft(h ^ k, 13) * 5 + 0xe6546b64;
+        }
+        for(; i < keySize; i++)
+            h = (h ^ keyBuffer.get(i)) * 0x1b873593;
+        return HashStrategy.mix(h ^ keySize) | 0x80000000;
+    }
+
+    /**
+     * Returns the slot holding a key.
+     * @param key, the key that is going to be searched for.
+     * @return the index of the key, -1 if the key is not in the table.
+     */
+    private int find(K key) {
+        int hash = serializeKey(key);
+        int slot = hash & slots.mask;
+        int stored;
+
+        while((stored = slots.hash(slot)) != 0) {
+            if(stored == hash && keyEquals(slot))
+                return slot;
+            slot = (slot + 1) & slots.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the key bytes of a slot with the key buffer.
+     * @param slot, the slot to be compared.
+     * @return true if the bytes are equal, false otherwise.
+     */
+    private boolean keyEquals(int slot) {
+        ByteBuffer chunk = slots.chunk(slot);
+        int offset = slots.offset(slot) + HASH_BYTES;
+        int i = 0;
+
+        for(; i + 8 <= keySize; i += 8) {
+            if(chunk.getLong(offset + i) != keyBuffer.getLong(i))
+                return false;
+        }
+        for(; i < keySize; i++) {
+            if(chunk.get(offset + i) != keyBuffer.get(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Empties a slot and shifts back any following entries of the same
+     * probe run whose home slot allows it.
+     * @param hole, the index of the slot to be emptied.
+     */
+    private void deleteSlot(int hole) {
+        int mask = slots.mask;
+        int index = hole;
+        int stored, home;
+
+        while(true) {
+            index = (index + 1) & mask;
+            if((stored = slots.hash(index)) == 0)
+                break;
+            home = stored & mask;
+
+            // Entry can move if the hole lies between its home and its slot
+            if(((index - home) & mask) >= ((index - hole) & mask)) {
+                copySlot(slots, index, slots, hole);
+                hole = index;
+            }
+        }
+        slots.chunk(hole).putInt(slots.offset(hole), 0);
+    }
+
+    /**
+     * Copies the bytes of one slot into another.
+     */
+    private void copySlot(SlotArray from, int fromSlot, SlotArray to, int toSlot) {
+        ByteBuffer src = from.chunk(fromSlot);
+        ByteBuffer dst = to.chunk(toSlot);
+        int srcOffset = from.offset(fromSlot);
+        int dstOffset = to.offset(toSlot);
+        int i = 0;
+
+        for(; i + 8 <= slotSize; i += 8)
+            dst.putLong(dstOffset + i, src.getLong(srcOffset + i));
+        for(; i < slotSize; i++)
+            dst.put(dstOffset + i, src.get(srcOffset + i));
+    }
+
+    private void checkOpen() {
+        if(slots == null)
+            throw new IllegalStateException("Table is closed.");
+    }
+
+    /**
+     * Rounds a size up to the next power of two.
+     * @param size, the requested size.
+     * @return the smallest power of two greater or equal to size.
+     */
+    private static int tableSizeFor(int size) {
+        if(size <= 2)
+            return 2;
+        if(size > MAX_TABLE_SIZE)
+            return MAX_TABLE_SIZE;
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * SlotArray class. A power of two number of fixed width slots spread
+     * over equally sized chunks. A slot never crosses a chunk boundary.
+     */
+    static final class SlotArray {
+        final ByteBuffer[] chunks;
+        final int tableSize;
+        final int mask;
+        final int slotSize;
+        final int chunkShift;
+        final int chunkMask;
+
+        SlotArray(int tableSize, int slotSize) {
+            int slotsPerChunk = Math.min(tableSize,
+                    Integer.highestOneBit(MAX_CHUNK_BYTES / slotSize));
+
+            this.tableSize = tableSize;
+            this.mask = tableSize - 1;
+            this.slotSize = slotSize;
+            this.chunkShift = Integer.numberOfTrailingZeros(slotsPerChunk);
+            this.chunkMask = slotsPerChunk - 1;
+            this.chunks = new ByteBuffer[tableSize / slotsPerChunk];
+        }
+
+        // Number of bytes in each chunk
+        int chunkBytes() {
+            return (chunkMask + 1) * slotSize;
+        }
+
+        ByteBuffer chunk(int slot) {
+            return chunks[slot >>> chunkShift];
+        }
+
+        int offset(int slot) {
+            return (slot & chunkMask) * slotSize;
+        }
+
+        // Stored hash of a slot, 0 if the slot is empty
+        int hash(int slot) {
+            return chunks[slot >>> chunkShift].getInt((slot & chunkMask) * slotSize);
+        }
+    }
+}
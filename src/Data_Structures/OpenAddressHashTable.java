@@ -0,0 +1,344 @@
+package Data_Structures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Generic open addressing Hash Table. Keys and values are kept in two
+ * flat parallel arrays and collisions are resolved with linear probing,
+ * so add, getValue and remove do not allocate any objects. Removal uses
+ * backward shift deletion, which keeps probe sequences short without
+ * leaving tombstones behind.
+ *
+ * Has the same methods as HashTable and can be used in its place. Keys
+ * are matched with equals() instead of compareTo(), and null keys are
+ * not allowed. Keys are hashed with a HashStrategy, mixed() by default.
+ *
+ * @author Ruben Ramirez
+ * @param <K> the type of keys in the table
+ * @param <V> the type of values in the table
+ */
+
+public class OpenAddressHashTable<K, V> implements Iterable<K> {
+
+    private static final double MAX_LOAD = .75;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[] keys;
+    private Object[] values;
+    private int tableSize;
+    private int mask;
+    private int numElements;
+    private int threshold;
+    private int modCount;
+    private final HashStrategy strategy;
+
+    public OpenAddressHashTable(int maxSize) {
+        this(maxSize, HashStrategy.mixed());
+    }
+
+    /**
+     * Creates a table that hashes its keys with the given strategy.
+     * @param maxSize, the expected number of elements.
+     * @param strategy, the strategy used to hash the keys.
+     */
+    public OpenAddressHashTable(int maxSize, HashStrategy strategy) {
+        if(maxSize < 0)
+            throw new IllegalArgumentException("Size must be positive.");
+        if(strategy == null)
+            throw new IllegalArgumentException("Strategy can't be null.");
+        this.strategy = strategy;
+        allocate(capacityFor(maxSize));
+        this.numElements = 0;
+    }
+
+    /**
+     * Adds an object containing a key and a value to the table. An existing
+     * value stored under the same key gets replaced.
+     * @param key, the key value to be added to the hash.
+     * @param value, the value to be added to the hash.
+     * @return true if the object is successfully added.
+     * @throws IllegalStateException if the key is new and the table is
+     * full at its largest size.
+     */
+    public boolean add(K key, V value) {
+        int index = getIndex(key);
+        Object tmp;
+
+        // Probe until the key or an empty slot is found
+        while((tmp = keys[index]) != null) {
+            if(tmp == key || tmp.equals(key)) {
+                values[index] = value;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // The largest table can't grow, and a full one would probe forever
+        if(numElements >= threshold && tableSize == MAX_CAPACITY)
+            throw new IllegalStateException("Table is full.");
+        keys[index] = key;
+        values[index] = value;
+        this.numElements++;
+        this.modCount++;
+
+        // Create a larger table if load factor is too large
+        if(numElements > threshold)
+            resize(tableSize * 2);
+        return true;
+    }
+
+    /**
+     * Returns the home slot of a key.
+     * @param key, the key that is to be hashed.
+     * @return the index that was generated from the hash value.
+     */
+    public int getIndex(K key) {
+        return strategy.hash(key) & mask;
+    }
+
+    /**
+     * Removes an object from the hash table if it is in the table.
+     * @param key, the key that is going to be searched for.
+     * @return true if an object got removed, false otherwise.
+     */
+    public boolean remove(K key) {
+        int index = find(key);
+
+        if(index < 0)
+            return false;
+        deleteSlot(index);
+        this.numElements--;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Returns a value associated with a given key.
+     * @param key, the key associated with the value.
+     * @return the value associated with the key, null
+     * if there is no element with the given key.
+     */
+    public V getValue(K key) {
+        int index = find(key);
+
+        if(index < 0)
+            return null;
+        return (V) values[index];
+    }
+
+    /**
+     * Returns the number of Objects currently in the hash table.
+     * @return the number of Objects currently in the hash table.
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /**
+     * Test whether the hash table is empty.
+     * @return true if the list is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.numElements == 0;
+    }
+
+    /**
+     * Returns the current load factor value.
+     * Load factor = number of elements / table size
+     * @return the current value of the load factor.
+     */
+    public double loadFactor() {
+        return (double) numElements / tableSize;
+    }
+
+    /**
+     * Resizes the hash table. The size gets rounded up to a power of two
+     * that can hold the current elements, and every existing element gets
+     * rehashed into the new arrays.
+     * @param newSize, the size of the new hash table.
+     */
+    public void resize(int newSize) {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int index;
+
+        allocate(Math.max(tableSizeFor(newSize), capacityFor(numElements)));
+
+        // Rehash every element in the table
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != null) {
+                index = getIndex((K) oldKeys[i]);
+                while(keys[index] != null)
+                    index = (index + 1) & mask;
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+        this.modCount++;
+    }
+
+    /**
+     *  Returns an iterator of the keys in the hash table. The keys
+     *  are returned in table order.
+     *  @return an iterator that traverses the keys in the table.
+     */
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     *  Returns an iterator of the keys in the hash table. The keys
+     *  are returned in table order.
+     *  @return an iterator that traverses the keys in the table.
+     */
+    public Iterator<K> keys() {
+        return new KeyIterator();
+    }
+
+    /**
+     *  Returns an Iterator of the values in the hash table. The
+     *  order of the values matches the order of the keys.
+     *  @return an iterator that traverses the values in the table.
+     */
+    public Iterator<V> values() {
+        return new ValueIterator();
+    }
+
+    /**
+     * Returns the slot holding a key.
+     * @param key, the key that is going to be searched for.
+     * @return the index of the key, -1 if the key is not in the table.
+     */
+    private int find(K key) {
+        int index = getIndex(key);
+        Object tmp;
+
+        while((tmp = keys[index]) != null) {
+            if(tmp == key || tmp.equals(key))
+                return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and shifts back any following entries of the same
+     * probe run whose home slot allows it, so lookups never stop early
+     * on the hole.
+     * @param hole, the index of the slot to be emptied.
+     */
+    private void deleteSlot(int hole) {
+        int index = hole;
+        int home;
+
+        while(true) {
+            index = (index + 1) & mask;
+            if(keys[index] == null)
+                break;
+            home = getIndex((K) keys[index]);
+
+            // Entry can move if the hole lies between its home and its slot
+            if(((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    /**
+     * Allocates empty key and value arrays of the given size.
+     * @param size, a power of two.
+     */
+    private void allocate(int size) {
+        this.tableSize = size;
+        this.mask = size - 1;
+        this.threshold = (int) (size * MAX_LOAD);
+        this.keys = new Object[size];
+        this.values = new Object[size];
+    }
+
+    /**
+     * Returns the table size needed to hold a number of elements
+     * without going over the maximum load factor.
+     * @param numElements, the number of elements to be held.
+     * @return a power of two table size.
+     */
+    private static int capacityFor(int numElements) {
+        return tableSizeFor((int) Math.min((long) (numElements / MAX_LOAD) + 1,
+                MAX_CAPACITY));
+    }
+
+    /**
+     * Rounds a size up to the next power of two.
+     * @param size, the requested size.
+     * @return the smallest power of two greater or equal to size.
+     */
+    private static int tableSizeFor(int size) {
+        if(size <= 2)
+            return 2;
+        if(size > MAX_CAPACITY)
+            return MAX_CAPACITY;
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * ValueIterator inner class that iterates through the values
+     * stored in the hash table.
+     */
+    private class ValueIterator extends IteratorHelper<V> {
+        public V next() {
+            return (V) values[nextSlot()];
+        }
+    }
+
+    /**
+     * KeyIterator inner class that iterates through the key values
+     * in the hash table.
+     */
+    private class KeyIterator extends IteratorHelper<K> {
+        public K next() {
+            return (K) keys[nextSlot()];
+        }
+    }
+
+    // Abstract IteratorHelper super class that walks the key array lazily.
+    // Throws ConcurrentModificationException if the table is changed while
+    // it is being traversed.
+    private abstract class IteratorHelper<E> implements Iterator<E> {
+        private final int expectedModCount;
+        private int index, returned;
+
+        public IteratorHelper() {
+            this.expectedModCount = modCount;
+            this.index = 0;
+            this.returned = 0;
+        }
+
+        public boolean hasNext() {
+            return returned < numElements;
+        }
+
+        public abstract E next();
+
+        // Returns the slot of the next element and moves past it
+        protected int nextSlot() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+            while(keys[index] == null)
+                index++;
+            returned++;
+            return index++;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
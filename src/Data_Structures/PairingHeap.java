@@ -0,0 +1,373 @@
+package Data_Structures;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Min heap that can be merged with another heap in constant time. The
+ * heap is a tree in which every node is smaller than its children, and
+ * every node keeps its children in a linked list.
+ *
+ * add(), insert() and meld() run in O(1): they only link two trees.
+ * remove() pairs up the children of the root, in amortized O(log n).
+ * decreaseKey() cuts a node out of the tree and links it back to the
+ * root, in amortized o(log n). Unlike BinaryHeap, equal elements are not
+ * removed in any particular order.
+ *
+ * Every handle points to the Owner of the heap it was inserted into. A
+ * meld forwards the Owner of the other heap to this one, and clear()
+ * starts a new Owner, so decreaseKey() can tell whether a handle still
+ * belongs to the heap it is called on.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements in the heap
+ */
+public class PairingHeap<E> implements HeapADT<E> {
+
+    private Handle<E> root;
+    private int numElements;
+    private int modCount;
+    private Owner owner;
+    private final Comparator<? super E> comparator;
+
+    public PairingHeap() {
+        this(null);
+    }
+
+    /**
+     * Creates a heap ordered by a Comparator.
+     * @param comparator, the Comparator used to order the elements, null
+     * to use their natural ordering
+     */
+    public PairingHeap(Comparator<? super E> comparator) {
+        this.root = null;
+        this.numElements = 0;
+        this.modCount = 0;
+        this.owner = new Owner();
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds a new object to the heap
+     * @param obj, the object to be added to the heap
+     * @return true
+     */
+    public boolean add(E obj) {
+        insert(obj);
+        return true;
+    }
+
+    /**
+     * Adds a new object to the heap and returns the node holding it, which
+     * can later be passed to decreaseKey().
+     * @param obj, the object to be added to the heap
+     * @return the handle of the new element
+     */
+    public Handle<E> insert(E obj) {
+        Handle<E> node = new Handle<>(obj, owner);
+
+        this.root = (root == null) ? node : link(root, node);
+        numElements++;
+        modCount++;
+        return node;
+    }
+
+    /**
+     * Removes and returns the minimum element in the heap
+     * @return the minimum element, null if heap is empty
+     */
+    public E remove() {
+        if(root == null)
+            return null;
+        Handle<E> min = root;
+
+        this.root = mergePairs(min.child);
+        min.child = null;
+        min.owner = null;
+        numElements--;
+        modCount++;
+        return min.value;
+    }
+
+    /**
+     * Returns the minimum element in the heap
+     * @return the minimum element, null if the heap is empty
+     */
+    public E peek() {
+        return root == null ? null : root.value;
+    }
+
+    /**
+     * Lowers the value of an element in the heap.
+     * @param handle, the handle returned by insert() when the element
+     * was added to this heap, or to a heap melded into this one
+     * @param obj, the new value of the element, not larger than the
+     * current value
+     * @throws IllegalArgumentException if the element was removed, is in
+     * another heap, or if the new value is larger than the current one
+     */
+    public void decreaseKey(Handle<E> handle, E obj) {
+        if(ownerOf(handle) != owner)
+            throw new IllegalArgumentException("Element is not in the heap.");
+        if(compare(obj, handle.value) > 0)
+            throw new IllegalArgumentException("New value is larger than the current value.");
+        handle.value = obj;
+        modCount++;
+        if(handle == root)
+            return;
+
+        // Cut the subtree out of its parent's list of children
+        if(handle.prev.child == handle)
+            handle.prev.child = handle.sibling;
+        else
+            handle.prev.sibling = handle.sibling;
+        if(handle.sibling != null)
+            handle.sibling.prev = handle.prev;
+        handle.prev = null;
+        handle.sibling = null;
+        this.root = link(root, handle);
+    }
+
+    /**
+     * Moves every element of another heap into this one in O(1). The
+     * other heap is left empty, and the handles of its elements now
+     * belong to this heap. Both heaps must use the same ordering.
+     * @param other, the heap to be merged into this one
+     */
+    public void meld(PairingHeap<E> other) {
+        if(other == this)
+            throw new IllegalArgumentException("A heap can't be melded with itself.");
+        if(other.root == null)
+            return;
+
+        this.root = (root == null) ? other.root : link(root, other.root);
+        numElements += other.numElements;
+        modCount++;
+        other.root = null;
+        other.numElements = 0;
+        other.modCount++;
+        other.owner.forward = owner;
+        other.owner = new Owner();
+    }
+
+    /**
+     * Checks if a value is stored in the heap
+     * @param obj, the object to be searched for
+     * @return true if the item is in the heap, false otherwise
+     */
+    public boolean contains(E obj) {
+        for(E value : this) {
+            if(compare(obj, value) == 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the Comparator used to order the heap
+     * @return the Comparator, null if the natural ordering is used
+     */
+    public Comparator<? super E> comparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Resets the heap to an empty position. Handles of the elements that
+     * were in the heap are no longer accepted by decreaseKey().
+     */
+    public void clear() {
+        this.root = null;
+        this.numElements = 0;
+        this.owner = new Owner();
+        modCount++;
+    }
+
+    /**
+     * Checks if the heap is currently empty
+     * @return true if the heap is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the number of elements stored in the heap
+     * @return int, the size of the heap
+     */
+    public int size() {
+        return this.numElements;
+    }
+
+    /**
+     * Makes the larger of two roots the leftmost child of the smaller one.
+     * @return the root of the linked tree
+     */
+    private Handle<E> link(Handle<E> a, Handle<E> b) {
+        if(compare(b.value, a.value) < 0) {
+            Handle<E> tmp = a;
+            a = b;
+            b = tmp;
+        }
+        b.sibling = a.child;
+        if(a.child != null)
+            a.child.prev = b;
+        b.prev = a;
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Two pass pairing of a list of subtrees. The first pass links them
+     * in pairs from left to right, the second links the pairs from right
+     * to left into a single tree.
+     * @param first, the leftmost subtree of the list
+     * @return the root of the merged tree, null if the list is empty
+     */
+    private Handle<E> mergePairs(Handle<E> first) {
+        Handle<E> pairs = null;
+
+        // Linked pairs are pushed on a stack threaded through sibling
+        while(first != null) {
+            Handle<E> a = first;
+            Handle<E> b = a.sibling;
+            first = (b == null) ? null : b.sibling;
+            a.prev = null;
+            a.sibling = null;
+            if(b != null) {
+                b.prev = null;
+                b.sibling = null;
+                a = link(a, b);
+            }
+            a.sibling = pairs;
+            pairs = a;
+        }
+
+        Handle<E> tree = null;
+        while(pairs != null) {
+            Handle<E> next = pairs.sibling;
+            pairs.sibling = null;
+            tree = (tree == null) ? pairs : link(pairs, tree);
+            pairs = next;
+        }
+        return tree;
+    }
+
+    /**
+     * Finds the Owner of the heap a handle currently belongs to, following
+     * the forwards left by meld(). The handle is pointed straight at it,
+     * so later lookups are short.
+     * @return the Owner, null if the element was removed
+     */
+    private static Owner ownerOf(Handle<?> handle) {
+        Owner current = handle.owner;
+
+        if(current == null)
+            return null;
+        while(current.forward != null)
+            current = current.forward;
+        handle.owner = current;
+        return current;
+    }
+
+    private int compare(E a, E b) {
+        if(comparator == null)
+            return ((Comparable<? super E>) a).compareTo(b);
+        return comparator.compare(a, b);
+    }
+
+    /**
+     * Returns an iterator over the elements in the heap. There is
+     * no guarantee of any ordering in the returned elements.
+     * @return Iterator, an iterator to traverse the heap
+     */
+    public Iterator<E> iterator() {
+        return new HeapIterator();
+    }
+
+    /**
+     * Node of the heap. A node points to its leftmost child and to its
+     * next sibling. prev points to the previous sibling, or to the parent
+     * for the leftmost child.
+     * @param <E> the type of the element in the node
+     */
+    public static final class Handle<E> {
+        private E value;
+        private Handle<E> child;
+        private Handle<E> sibling;
+        private Handle<E> prev;
+        private Owner owner;
+
+        private Handle(E value, Owner owner) {
+            this.value = value;
+            this.owner = owner;
+        }
+
+        /**
+         * Returns the element held by this node
+         * @return the element
+         */
+        public E getValue() {
+            return this.value;
+        }
+    }
+
+    // Identifies the elements of one heap, forward is set once they were
+    // melded into another heap
+    private static final class Owner {
+        private Owner forward;
+    }
+
+    /**
+     * Class constructs an iterator to be used to traverse the elements
+     * in the heap, in preorder. The remove() method is not implemented.
+     */
+    private class HeapIterator implements Iterator<E> {
+        private final Deque<Handle<E>> stack;
+        private final int expectedModCount;
+
+        public HeapIterator() {
+            this.stack = new ArrayDeque<>();
+            this.expectedModCount = modCount;
+            if(root != null)
+                stack.push(root);
+        }
+
+        /**
+         * Checks if there are more elements to traverse
+         * @return true if there are more elements, false otherwise
+         */
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Returns the next element in the heap. Returned elements are not in
+         * sorted order.
+         * @return E, the next element in the heap
+         */
+        public E next() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if(!hasNext())
+                throw new NoSuchElementException();
+            Handle<E> node = stack.pop();
+
+            if(node.sibling != null)
+                stack.push(node.sibling);
+            if(node.child != null)
+                stack.push(node.child);
+            return node.value;
+        }
+
+        /**
+         * Unsupported method.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException("Method not supported.");
+        }
+    }
+}
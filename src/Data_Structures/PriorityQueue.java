@@ -1,5 +1,8 @@
 package Data_Structures;
 
+import java.util.Collection;
+import java.util.Comparator;
+
 /**
  *
  * @author Ruben
@@ -14,10 +17,29 @@ public class PriorityQueue<E> {
         this.queue = new BinaryHeap<>(size);
     }
     
+    public PriorityQueue(int size, Comparator<? super E> comparator) {
+        if(size < 1)
+            throw new IllegalArgumentException("Size must be larger than 1.");
+        this.queue = new BinaryHeap<>(size, comparator);
+    }
+    
+    public PriorityQueue(Collection<? extends E> elements) {
+        this(elements, null);
+    }
+    
+    // builds the queue from a batch of elements in O(n) time
+    public PriorityQueue(Collection<? extends E> elements, Comparator<? super E> comparator) {
+        this.queue = new BinaryHeap<>(elements, comparator);
+    }
+    
     public boolean enqueue(E obj) {
         return queue.add(obj);
     }
     
+    public boolean addAll(Collection<? extends E> elements) {
+        return queue.addAll(elements);
+    }
+    
     public E dequeue() {
         return queue.remove();
     }
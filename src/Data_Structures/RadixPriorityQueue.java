@@ -0,0 +1,207 @@
+package Data_Structures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone priority queue for long keys, such as timestamps in an event
+ * simulation, implemented as a radix heap. Keys can't be smaller than the
+ * key of the last dequeued element, which lets elements be kept in 65
+ * buckets by the highest bit in which their key differs from that last
+ * key, instead of being compared with each other.
+ *
+ * enqueue() runs in O(1). dequeue() runs in amortized O(1): an element
+ * only moves to a lower bucket, so it is moved at most 64 times. Elements
+ * with equal keys are dequeued in the order they were added.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements in the queue
+ */
+public class RadixPriorityQueue<E> {
+
+    private static final int NUM_BUCKETS = 65;
+
+    private Bucket[] buckets;
+    private long last;
+    private int numElements;
+
+    public RadixPriorityQueue() {
+        this.buckets = new Bucket[NUM_BUCKETS];
+        for(int i = 0; i < NUM_BUCKETS; i++)
+            buckets[i] = new Bucket();
+        this.last = Long.MIN_VALUE;
+        this.numElements = 0;
+    }
+
+    /**
+     * Inserts an element into the queue
+     * @param key, the priority of the element, smaller keys are dequeued
+     * first
+     * @param obj, the element to be added
+     * @return true
+     * @throws IllegalArgumentException if key is smaller than the key of
+     * the last dequeued element
+     */
+    public boolean enqueue(long key, E obj) {
+        if(key < last)
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last dequeued key " + last + ".");
+        buckets[getIndex(key)].add(key, obj);
+        numElements++;
+        return true;
+    }
+
+    /**
+     * Removes and returns the element with the smallest key
+     * @return the element with the smallest key, null if the queue is
+     * empty
+     */
+    public E dequeue() {
+        if(numElements == 0)
+            return null;
+        if(buckets[0].isEmpty())
+            redistribute();
+        numElements--;
+        return (E) buckets[0].poll();
+    }
+
+    /**
+     * Returns but does not remove the element with the smallest key
+     * @return the element with the smallest key, null if the queue is
+     * empty
+     */
+    public E peek() {
+        if(numElements == 0)
+            return null;
+        if(!buckets[0].isEmpty())
+            return (E) buckets[0].values[buckets[0].head];
+        Bucket bucket = firstBucket();
+        return (E) bucket.values[bucket.minIndex()];
+    }
+
+    /**
+     * Returns the smallest key in the queue
+     * @return the key of the element returned by peek()
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peekKey() {
+        if(numElements == 0)
+            throw new NoSuchElementException();
+        if(!buckets[0].isEmpty())
+            return last;
+        Bucket bucket = firstBucket();
+        return bucket.keys[bucket.minIndex()];
+    }
+
+    /**
+     * Returns the key of the last dequeued element, the smallest key
+     * that can still be enqueued
+     * @return the last dequeued key, Long.MIN_VALUE if no element was
+     * dequeued yet
+     */
+    public long lastKey() {
+        return this.last;
+    }
+
+    public int size() {
+        return this.numElements;
+    }
+
+    public boolean isEmpty() {
+        return numElements == 0;
+    }
+
+    /**
+     * Removes every element. The last dequeued key is kept.
+     */
+    public void clear() {
+        for(int i = 0; i < NUM_BUCKETS; i++)
+            buckets[i].clear();
+        this.numElements = 0;
+    }
+
+    // bucket 0 holds keys equal to last, bucket i keys whose highest bit
+    // that differs from last is bit i - 1
+    private int getIndex(long key) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private Bucket firstBucket() {
+        int i = 1;
+        while(buckets[i].isEmpty())
+            i++;
+        return buckets[i];
+    }
+
+    /**
+     * Moves the smallest key of the first non empty bucket into last, and
+     * spreads that bucket over the lower buckets. Every moved element goes
+     * to a lower bucket, and the ones with the smallest key go to bucket 0.
+     */
+    private void redistribute() {
+        Bucket bucket = firstBucket();
+        this.last = bucket.keys[bucket.minIndex()];
+
+        for(int i = bucket.head; i < bucket.size; i++)
+            buckets[getIndex(bucket.keys[i])].add(bucket.keys[i], bucket.values[i]);
+        bucket.clear();
+    }
+
+    /**
+     * Growable array of keys and elements. Elements are only taken out of
+     * the front of bucket 0, every other bucket is emptied at once.
+     */
+    private static class Bucket {
+        private long[] keys;
+        private Object[] values;
+        private int head;
+        private int size;
+
+        public Bucket() {
+            this.keys = new long[4];
+            this.values = new Object[4];
+            this.head = 0;
+            this.size = 0;
+        }
+
+        public void add(long key, Object obj) {
+            if(size == keys.length) {
+                long[] newKeys = new long[keys.length * 2];
+                Object[] newValues = new Object[keys.length * 2];
+                System.arraycopy(keys, 0, newKeys, 0, size);
+                System.arraycopy(values, 0, newValues, 0, size);
+                this.keys = newKeys;
+                this.values = newValues;
+            }
+            keys[size] = key;
+            values[size++] = obj;
+        }
+
+        public Object poll() {
+            Object obj = values[head];
+            values[head++] = null;
+            if(head == size)
+                clear();
+            return obj;
+        }
+
+        // index of the first smallest key
+        public int minIndex() {
+            int min = head;
+            for(int i = head + 1; i < size; i++) {
+                if(keys[i] < keys[min])
+                    min = i;
+            }
+            return min;
+        }
+
+        public boolean isEmpty() {
+            return head == size;
+        }
+
+        public void clear() {
+            for(int i = head; i < size; i++)
+                values[i] = null;
+            this.head = 0;
+            this.size = 0;
+        }
+    }
+}
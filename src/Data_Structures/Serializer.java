@@ -0,0 +1,62 @@
+package Data_Structures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects to and from a fixed number of bytes. Used by the off
+ * heap hash tables, which store keys and values in raw memory instead of
+ * as objects. Every object of a type must take exactly size() bytes, and
+ * two keys are considered equal when their bytes are equal.
+ *
+ * @author Ruben Ramirez
+ * @param <T> the type of objects being serialized
+ */
+public interface Serializer<T> {
+
+    public static final Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        public int size() {
+            return 4;
+        }
+        public void write(Integer obj, ByteBuffer buffer, int offset) {
+            buffer.putInt(offset, obj);
+        }
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    public static final Serializer<Long> LONG = new Serializer<Long>() {
+        public int size() {
+            return 8;
+        }
+        public void write(Long obj, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, obj);
+        }
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    public static final Serializer<Double> DOUBLE = new Serializer<Double>() {
+        public int size() {
+            return 8;
+        }
+        public void write(Double obj, ByteBuffer buffer, int offset) {
+            buffer.putDouble(offset, obj);
+        }
+        public Double read(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+    };
+
+//  Returns the number of bytes every serialized object takes.
+    public int size();
+
+//  Writes obj into buffer, starting at the absolute position offset.
+//  The position of the buffer is not changed.
+    public void write(T obj, ByteBuffer buffer, int offset);
+
+//  Reads an object from buffer, starting at the absolute position offset.
+//  The position of the buffer is not changed.
+    public T read(ByteBuffer buffer, int offset);
+}
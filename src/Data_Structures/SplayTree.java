@@ -1,20 +1,85 @@
 package Data_Structures;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
 /**
  * Implementation of a generic top-down splay tree
  * Items are added as key-value pairs into the tree
+ * 
+ * Besides lookups by key, the tree can be used as an ordered map: 
+ * floor(), ceiling(), higher() and lower() find the closest keys to a
+ * given key, and subMap() walks a range of keys in order. Every search
+ * splays the node it ends at to the root, so keys that are used often 
+ * stay close to the top.
+ * 
+ * Every node also stores the size of its subtree, which is kept up to 
+ * date by the splay, the rotations and deletions. That gives order 
+ * statistics in amortized O(log n): rank() counts the keys below a key,
+ * select() finds the key at a position, and countRange() counts the 
+ * keys in a range.
+ * 
+ * Splaying on every read pays off when a few keys get most of the 
+ * accesses, but on uniform reads it only rewrites the tree. The policy
+ * given to the constructor decides how contains() and get() reshape the
+ * tree, every other operation always splays:
+ * 
+ *   FULL            - top-down splay on every read
+ *   SEMI            - bottom-up semi-splay, which moves the node found 
+ *                     about half way to the root, with half the rotations
+ *   EVERY_KTH       - full splay on every k-th read only
+ *   DEPTH_THRESHOLD - full splay only when the node found is deeper than
+ *                     a given depth
+ * 
+ * Reads that do not splay leave the tree unchanged, so they don't 
+ * invalidate iterators either.
  * @author Ruben Ramirez
  * @param <K>, keys stored in the tree
  * @param <V>, values stored in the tree
  */
 
 public class SplayTree<K,V> {
+    
+    /**
+     * How reads restructure the tree.
+     */
+    public enum Policy { FULL, SEMI, EVERY_KTH, DEPTH_THRESHOLD }
+    
     public Node<K,V> root;
     private int currentSize;
+    private int modCount;
+    private final Policy policy;
+    private final int parameter;
+    private int reads;
+    private Node<K,V>[] path;
     
     public SplayTree() {
+        this(Policy.FULL, 0);
+    }
+    
+    /**
+     * Creates a tree that reshapes itself on reads as a policy says.
+     * @param policy, how contains() and get() splay the tree
+     * @param parameter, k for EVERY_KTH, the largest depth that is not
+     * splayed for DEPTH_THRESHOLD, ignored by the other policies
+     */
+    public SplayTree(Policy policy, int parameter) {
+        if(policy == Policy.EVERY_KTH && parameter < 1)
+            throw new IllegalArgumentException("k must be at least 1.");
+        if(policy == Policy.DEPTH_THRESHOLD && parameter < 0)
+            throw new IllegalArgumentException("Depth must be positive.");
         this.root = null;
         this.currentSize = 0;
+        this.modCount = 0;
+        this.policy = policy;
+        this.parameter = parameter;
+        this.reads = 0;
+        this.path = new SplayTree.Node[16];
     }
     
     /**
@@ -29,25 +94,29 @@ public class SplayTree<K,V> {
         if(root == null) {
             root = newNode;
             this.currentSize++;
+            this.modCount++;
             return true;
         }
-        splay(newNode);
+        splay(key);
         
-        if(((Comparable<K>)key).compareTo(root.key) == 0) 
-            return false;
+        if(compare(key, root.key) == 0) {
+            root.value = value;
+            return true;
+        }
         
-        if(((Comparable<K>)key).compareTo(root.key) < 0) {
+        if(compare(key, root.key) < 0) {
             newNode.left = root.left;
             newNode.right = root;
             root.left = null;
-            root = newNode;
         }
         else {
             newNode.right = root.right;
             newNode.left = root;
             root.right = null;
-            root = newNode;
         }
+        update(root);
+        update(newNode);
+        root = newNode;
         this.currentSize++;
         return true;
     }
@@ -57,12 +126,152 @@ public class SplayTree<K,V> {
      * @return true if the object is found, false otherwise
      */
     public boolean contains(K key) {
-        Node<K,V> node = new Node<>(key, null);
+        return find(key) != null;
+    }
+    
+    /**
+     * Returns the value stored under a key
+     * @param key, the key to be searched for
+     * @return the value of the key, null if the key is not in the tree
+     */
+    public V get(K key) {
+        Node<K,V> node = find(key);
         
-        splay(node);
-        if(((Comparable<K>)key).compareTo(root.key) == 0) 
-            return true;
-        return false;
+        return node == null ? null : node.value;
+    }
+    
+    /**
+     * Returns the largest key less than or equal to the given key
+     * @param key, the key to be compared with
+     * @return the floor of key, null if there is no such key
+     */
+    public K floor(K key) {
+        return closest(key, true, true);
+    }
+    
+    /**
+     * Returns the smallest key greater than or equal to the given key
+     * @param key, the key to be compared with
+     * @return the ceiling of key, null if there is no such key
+     */
+    public K ceiling(K key) {
+        return closest(key, false, true);
+    }
+    
+    /**
+     * Returns the largest key strictly less than the given key
+     * @param key, the key to be compared with
+     * @return the key below key, null if there is no such key
+     */
+    public K lower(K key) {
+        return closest(key, true, false);
+    }
+    
+    /**
+     * Returns the smallest key strictly greater than the given key
+     * @param key, the key to be compared with
+     * @return the key above key, null if there is no such key
+     */
+    public K higher(K key) {
+        return closest(key, false, false);
+    }
+    
+    /**
+     * Returns the smallest key in the tree
+     * @return the first key, null if the tree is empty
+     */
+    public K firstKey() {
+        Node<K,V> node = root;
+        
+        if(node == null)
+            return null;
+        while(node.left != null)
+            node = node.left;
+        splay(node.key);
+        return root.key;
+    }
+    
+    /**
+     * Returns the largest key in the tree
+     * @return the last key, null if the tree is empty
+     */
+    public K lastKey() {
+        Node<K,V> node = root;
+        
+        if(node == null)
+            return null;
+        while(node.right != null)
+            node = node.right;
+        splay(node.key);
+        return root.key;
+    }
+    
+    /**
+     * Returns the number of keys in the tree that are smaller than a key
+     * @param key, the key to be compared with
+     * @return the rank of key, which is its position if it is in the tree
+     */
+    public int rank(K key) {
+        if(root == null)
+            return 0;
+        
+        splay(key);
+        if(compare(root.key, key) < 0)
+            return size(root.left) + 1;
+        return size(root.left);
+    }
+    
+    /**
+     * Returns the key at a position of the sorted order of the keys
+     * @param index, the position of the key, 0 for the smallest key
+     * @return the key with index smaller keys in the tree
+     */
+    public K select(int index) {
+        Node<K,V> node = root;
+        
+        if(index < 0 || index >= currentSize)
+            throw new IllegalArgumentException("Index out of range: " + index);
+        
+        // Go down by subtree sizes, then splay the node that was found
+        while(index != size(node.left)) {
+            if(index < size(node.left))
+                node = node.left;
+            else {
+                index -= size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        splay(node.key);
+        return root.key;
+    }
+    
+    /**
+     * Counts the keys that lie in a range
+     * @param from, the lowest key of the range, inclusive
+     * @param to, the highest key of the range, exclusive
+     * @return the number of keys with from <= key < to
+     */
+    public int countRange(K from, K to) {
+        if(compare(from, to) > 0)
+            throw new IllegalArgumentException("from is larger than to.");
+        return rank(to) - rank(from);
+    }
+    
+    /**
+     * Returns a lazy iterator over the entries whose keys lie in a range, 
+     * in ascending key order. The iterator keeps the path to the next 
+     * entry on a stack, so walking m entries costs O(log n + m) amortized.
+     * The iterator is fail fast: any change to the tree invalidates it,
+     * and so do get() and contains() calls that reshape the tree under
+     * the current policy.
+     * @param from, the lowest key of the range, inclusive
+     * @param to, the highest key of the range, exclusive
+     * @return an iterator over the entries with from <= key < to
+     */
+    public Iterator<Map.Entry<K,V>> subMap(K from, K to) {
+        if(compare(from, to) > 0)
+            throw new IllegalArgumentException("from is larger than to.");
+        return new RangeIterator(from, to);
     }
     
     /**
@@ -76,15 +285,14 @@ public class SplayTree<K,V> {
     }
     
     public K remove(K key) {
-        Node<K,V> node = new Node<>(key, null);
         Node<K,V> tmp; 
         if(root == null)
             return null;
         
-        splay(node);
+        splay(key);
         
         // If object is not in the tree
-        if(((Comparable<K>)key).compareTo(root.key) != 0) 
+        if(compare(key, root.key) != 0) 
             return null;
         
         // If largest element has to be deleted
@@ -93,16 +301,161 @@ public class SplayTree<K,V> {
             currentSize--;
             return key;
         }
-        // Get the in order successor and delete it
+        // Unlink the in order successor and put it in place of the root,
+        // so entries handed out by iterators keep their key and value
         tmp = deleteNext(root);
-        root.key = tmp.key;
+        tmp.left = root.left;
+        tmp.right = root.right;
+        update(tmp);
+        root = tmp;
         return key;
     }
     
+    /**
+     * Looks up a key for contains() and get(), reshaping the tree as the
+     * read policy says.
+     * @param key, the key to be searched for
+     * @return the node holding key, null if key is not in the tree
+     */
+    private Node<K,V> find(K key) {
+        Node<K,V> node;
+        int depth;
+        
+        if(root == null)
+            return null;
+        if(policy == Policy.FULL || (policy == Policy.EVERY_KTH && ++reads >= parameter)) {
+            this.reads = 0;
+            splay(key);
+            return compare(key, root.key) == 0 ? root : null;
+        }
+        
+        if(policy == Policy.SEMI) {
+            depth = descend(key);
+            node = path[depth];
+            semiSplay(depth);
+            Arrays.fill(path, 0, depth + 1, null);
+            return compare(key, node.key) == 0 ? node : null;
+        }
+        
+        // Plain search, splaying only if the key sits too deep
+        node = root;
+        depth = 0;
+        while(node != null) {
+            int cmp = compare(key, node.key);
+            if(cmp == 0)
+                break;
+            node = cmp < 0 ? node.left : node.right;
+            depth++;
+        }
+        if(policy == Policy.DEPTH_THRESHOLD && depth > parameter)
+            splay(key);
+        return node;
+    }
+    
+    /**
+     * Walks down to a key without changing the tree, keeping the nodes 
+     * it passes in path.
+     * @param key, the key to be searched for
+     * @return the depth of the last node on the search path
+     */
+    private int descend(K key) {
+        Node<K,V> node = root;
+        int depth = -1;
+        
+        while(node != null) {
+            if(++depth == path.length)
+                path = Arrays.copyOf(path, depth * 2);
+            path[depth] = node;
+            int cmp = compare(key, node.key);
+            if(cmp == 0)
+                break;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return depth;
+    }
+    
+    /**
+     * Bottom-up semi-splay of the node at a depth of path. A zig-zig step
+     * only rotates the parent over the grandparent and goes on from the 
+     * parent, a zig-zag step moves the node up two levels. The node ends
+     * up about half way to the root.
+     * @param depth, the depth of the node in path
+     */
+    private void semiSplay(int depth) {
+        Node<K,V> x, parent, grand, top;
+        modCount++;
+        
+        while(depth >= 2) {
+            x = path[depth];
+            parent = path[depth - 1];
+            grand = path[depth - 2];
+            
+            if((grand.left == parent) == (parent.left == x))
+                top = (grand.left == parent) ? rightRotate(grand) : leftRotate(grand);
+            else if(grand.left == parent) {
+                grand.left = leftRotate(parent);
+                top = rightRotate(grand);
+            }
+            else {
+                grand.right = rightRotate(parent);
+                top = leftRotate(grand);
+            }
+            
+            // Hang the rotated subtree where the grandparent was
+            if(depth == 2)
+                root = top;
+            else if(path[depth - 3].left == grand)
+                path[depth - 3].left = top;
+            else
+                path[depth - 3].right = top;
+            path[depth - 2] = top;
+            depth -= 2;
+        }
+    }
+    
+    /**
+     * Finds the closest key on one side of a given key. Splaying the key
+     * brings either the key itself or one of its neighbors to the root.
+     * @param key, the key to be compared with
+     * @param below, true to look for smaller keys, false for larger ones
+     * @param inclusive, true if the key itself is an answer
+     * @return the closest key, null if there is none on that side
+     */
+    private K closest(K key, boolean below, boolean inclusive) {
+        Node<K,V> node;
+        int cmp;
+        
+        if(root == null)
+            return null;
+        splay(key);
+        cmp = compare(root.key, key);
+        
+        if(cmp == 0 && inclusive)
+            return root.key;
+        if(below ? cmp < 0 : cmp > 0)
+            return root.key;
+        
+        // The answer is the neighbor of the root on the wanted side
+        node = below ? root.left : root.right;
+        if(node == null)
+            return null;
+        if(below) {
+            while(node.right != null)
+                node = node.right;
+        }
+        else {
+            while(node.left != null)
+                node = node.left;
+        }
+        splay(node.key);
+        return root.key;
+    }
+    
     /**
      * Helped method that finds the in order successor of a given node and 
      * deletes it. Returns the value of the in order successor to be placed
-     * at the root of the tree.
+     * at the root of the tree. Every node on the path to the successor 
+     * loses one node from its subtree.
      * @param node, node to be used to find the successor node
      * @return the node containing the in order successor, null if successor
      * doesn't exist
@@ -124,6 +477,7 @@ public class SplayTree<K,V> {
             tmp = node;
             while(node.left != null) {
                 tmp = node;
+                tmp.size--;
                 node = node.left;
             }
             
@@ -142,17 +496,28 @@ public class SplayTree<K,V> {
         return null;
     }
     
-    private void splay(Node<K,V> node) {
+    /**
+     * Top-down splay. Moves the node holding key to the root, or the last
+     * node on the search path if key is not in the tree.
+     * 
+     * Subtree sizes follow Sleator's top down splay: the sizes of the left
+     * and right trees are summed while they are built, and the sizes along
+     * their inner paths are fixed once the new root is known.
+     * @param key, the key to be searched for
+     */
+    private void splay(K key) {
         Node<K,V> holder = new Node<>(null, null);
-        Node<K,V> L, R, top;
+        Node<K,V> L, R, top, y;
+        int leftSize = 0, rightSize = 0;
         top = root;
         L = R = holder;
+        modCount++;
         
         while(true) {
-            if(((Comparable<K>)node.key).compareTo(top.key) < 0) {
+            if(compare(key, top.key) < 0) {
                 if(top.left == null) 
                         break;
-                if(((Comparable<K>)node.key).compareTo(top.left.key) < 0) {
+                if(compare(key, top.left.key) < 0) {
                     top = rightRotate(top);
                     if(top.left == null) 
                         break;
@@ -161,11 +526,12 @@ public class SplayTree<K,V> {
                 R = top;
                 top = R.left;
                 R.left = null;
+                rightSize += 1 + size(R.right);
             }
-            else if(((Comparable<K>)node.key).compareTo(top.key) > 0) {
+            else if(compare(key, top.key) > 0) {
                 if(top.right == null) 
                         break;
-                if(((Comparable<K>)node.key).compareTo(top.right.key) > 0) {
+                if(compare(key, top.right.key) > 0) {
                     top = leftRotate(top);
                     if(top.right == null) 
                         break;
@@ -174,10 +540,25 @@ public class SplayTree<K,V> {
                 L = top;
                 top = L.right;
                 L.right = null;
+                leftSize += 1 + size(L.left);
             }
             else
                 break;
         }
+        leftSize += size(top.left);
+        rightSize += size(top.right);
+        top.size = leftSize + rightSize + 1;
+        
+        // Fix the sizes on the right path of the left tree and on the left
+        // path of the right tree, top.left and top.right hang below them
+        for(y = holder.right; y != null; y = y.right) {
+            y.size = leftSize;
+            leftSize -= 1 + size(y.left);
+        }
+        for(y = holder.left; y != null; y = y.left) {
+            y.size = rightSize;
+            rightSize -= 1 + size(y.right);
+        }
         L.right = top.left;
         R.left = top.right;
         top.left = holder.right;
@@ -185,6 +566,19 @@ public class SplayTree<K,V> {
         root = top;
     }
     
+    private int size(Node<K,V> node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    // recomputes the subtree size of a node from its children
+    private void update(Node<K,V> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+    
+    private int compare(K a, K b) {
+        return ((Comparable<K>) a).compareTo(b);
+    }
+    
     /**
      * Returns the number of elements stored in the tree
      * @return int, the amount of nodes within the tree
@@ -210,6 +604,8 @@ public class SplayTree<K,V> {
         Node<K,V> newTop = node.left;
         node.left = newTop.right;
         newTop.right = node;
+        update(node);
+        update(newTop);
         return newTop;
     }
     
@@ -217,6 +613,8 @@ public class SplayTree<K,V> {
         Node<K,V> newTop = node.right;
         node.right = newTop.left;
         newTop.left = node;
+        update(node);
+        update(newTop);
         return newTop;
     }
     
@@ -249,20 +647,120 @@ public class SplayTree<K,V> {
         }
     }
     
-    private class Node<K,V> implements Comparable<Node<K,V>> {
+    /**
+     * In order iterator over a range of keys. The stack holds the nodes
+     * whose left subtree is being walked, with the next node on top.
+     */
+    private class RangeIterator implements Iterator<Map.Entry<K,V>> {
+        private final K to;
+        private final Deque<Node<K,V>> stack;
+        private Node<K,V> last;
+        private int expectedModCount;
+        
+        public RangeIterator(K from, K to) {
+            this.to = to;
+            this.stack = new ArrayDeque<>();
+            this.last = null;
+            if(root != null)
+                splay(from);
+            pushFrom(from, true);
+            this.expectedModCount = modCount;
+        }
+        
+        /**
+         * Pushes the path to the first key after from.
+         * @param from, the key to start at
+         * @param inclusive, true if from itself is included
+         */
+        private void pushFrom(K from, boolean inclusive) {
+            Node<K,V> node = root;
+            
+            while(node != null) {
+                int cmp = compare(node.key, from);
+                if(cmp > 0 || (cmp == 0 && inclusive)) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                else
+                    node = node.right;
+            }
+        }
+        
+        /**
+         * Checks if there are more entries in the range
+         * @return true if there are more entries, false otherwise
+         */
+        public boolean hasNext() {
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            return !stack.isEmpty() && compare(stack.peek().key, to) < 0;
+        }
+        
+        /**
+         * Returns the next entry in ascending key order
+         * @return the next entry of the range
+         */
+        public Map.Entry<K,V> next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            Node<K,V> node = stack.pop();
+            
+            // The next nodes are the leftmost path of the right subtree
+            for(Node<K,V> child = node.right; child != null; child = child.left)
+                stack.push(child);
+            last = node;
+            return node;
+        }
+        
+        /**
+         * Removes the last returned entry from the tree.
+         */
+        public void remove() {
+            if(last == null)
+                throw new IllegalStateException();
+            if(modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            K key = last.key;
+            
+            // Removing reshapes the tree, so the path is found again
+            SplayTree.this.remove(key);
+            stack.clear();
+            pushFrom(key, false);
+            this.last = null;
+            this.expectedModCount = modCount;
+        }
+    }
+    
+    private class Node<K,V> implements Comparable<Node<K,V>>, Map.Entry<K,V> {
         private K key;
         private V value;
         private Node<K,V> left, right;
+        private int size;
         
         public Node(K key, V val) {
             this.key = key;
             this.value = val;
             this.left = null;
             this.right = null;
+            this.size = 1;
         }
         
         public int compareTo(Node<K,V> node) {
             return (((Comparable<K>)key).compareTo(node.key));
         }
+        
+        public K getKey() {
+            return this.key;
+        }
+        
+        public V getValue() {
+            return this.value;
+        }
+        
+        public V setValue(V val) {
+            V old = this.value;
+            this.value = val;
+            return old;
+        }
     }
 }
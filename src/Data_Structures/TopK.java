@@ -0,0 +1,139 @@
+package Data_Structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the k largest elements of a stream. The elements are held in a
+ * min heap of size k, so the smallest element kept is always at the top.
+ * A new element that is not larger than it is rejected with a single
+ * comparison, and memory use stays at O(k) no matter how many elements
+ * are offered.
+ *
+ * Partial results computed by different threads can be combined with
+ * merge(). A TopK itself is not thread safe.
+ *
+ * @author Ruben Ramirez
+ * @param <E> the type of elements being selected
+ */
+public class TopK<E> {
+
+    private final BinaryHeap<E> heap;
+    private final Comparator<? super E> comparator;
+    private final int k;
+
+    public TopK(int k) {
+        this(k, null);
+    }
+
+    /**
+     * Creates a selection of the k largest elements by a Comparator.
+     * @param k, the number of elements to keep
+     * @param comparator, the Comparator used to rank the elements, null
+     * to use their natural ordering
+     */
+    public TopK(int k, Comparator<? super E> comparator) {
+        if(k < 1)
+            throw new IllegalArgumentException("k must be at least 1.");
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new BinaryHeap<>(k, comparator);
+    }
+
+    /**
+     * Offers an element to the selection. Elements equal to the smallest
+     * element kept are rejected, so earlier elements win ties.
+     * @param obj, the element to be offered
+     * @return true if the element was kept, false if it was rejected
+     */
+    public boolean offer(E obj) {
+        if(heap.size() < k)
+            return heap.add(obj);
+        if(compare(obj, heap.peek()) <= 0)
+            return false;
+        heap.replace(obj);
+        return true;
+    }
+
+    /**
+     * Offers every element kept by another selection to this one.
+     * @param other, a selection computed over another part of the stream
+     */
+    public void merge(TopK<? extends E> other) {
+        for(E obj : other.heap)
+            offer(obj);
+    }
+
+    /**
+     * Returns the smallest element kept. Once k elements are kept, an
+     * element has to be larger than this one to be accepted.
+     * @return the smallest element kept, null if the selection is empty
+     */
+    public E peek() {
+        return heap.peek();
+    }
+
+    /**
+     * Returns the elements kept, largest first. The selection is not
+     * modified.
+     * @return a new list holding the elements kept
+     */
+    public List<E> toSortedList() {
+        List<E> list = new ArrayList<>(heap.size());
+
+        for(E obj : heap)
+            list.add(obj);
+        Collections.sort(list, Collections.reverseOrder(naturalIfNull()));
+        return list;
+    }
+
+    /**
+     * Returns the number of elements kept
+     * @return the number of elements kept, at most k
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Returns the maximum number of elements kept
+     * @return k
+     */
+    public int capacity() {
+        return this.k;
+    }
+
+    /**
+     * Checks if no element is kept
+     * @return true if the selection is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Resets the selection to an empty state
+     */
+    public void clear() {
+        heap.clear();
+    }
+
+    private int compare(E a, E b) {
+        if(comparator == null)
+            return ((Comparable<? super E>) a).compareTo(b);
+        return comparator.compare(a, b);
+    }
+
+    // Comparator that ranks the elements the same way the heap does
+    private Comparator<? super E> naturalIfNull() {
+        if(comparator != null)
+            return comparator;
+        return new Comparator<E>() {
+            public int compare(E a, E b) {
+                return ((Comparable<? super E>) a).compareTo(b);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package javadatastructures;
+
+/**
+ * Harness shared by the benchmarks in this package. A benchmark measures
+ * a number of rounds after one first round that warms up the JIT and is
+ * not reported, and runs every measured loop through check().
+ */
+abstract class Benchmark {
+
+    /**
+     * Runs every measurement of the benchmark once.
+     * @param report, false for the warm up round, whose results must not
+     * be printed
+     */
+    abstract void round(boolean report);
+
+    /**
+     * Runs the warm up round and then the measured rounds, with a blank
+     * line after each reported round.
+     * @param rounds, the number of rounds to report
+     */
+    void measure(int rounds) {
+        for(int i = 0; i <= rounds; i++) {
+            round(i > 0);
+            if(i > 0)
+                System.out.println();
+        }
+    }
+
+    // Uses the sum so the JIT can't drop the measured loop
+    static double check(long sum, double result) {
+        if(sum == 42)
+            System.out.print("");
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package javadatastructures;
+
+import Data_Structures.BinaryHeap;
+import java.util.Random;
+
+/**
+ * Compares remove() throughput of BinaryHeap with 2, 4 and 8 children
+ * per node. Every run fills a heap with random Integers and then either 
+ * removes everything, or keeps the heap at a constant size by adding a
+ * new element after every removal.
+ * 
+ * Usage: HeapBenchmark [heap size] [rounds]
+ */
+public class HeapBenchmark {
+
+    private static final int[] ARITIES = { 2, 4, 8 };
+
+    public static void main(String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        final Integer[] values = new Integer[size * 2];
+        Random random = new Random(42);
+        
+        for(int i = 0; i < values.length; i++)
+            values[i] = random.nextInt();
+
+        new Benchmark() {
+            void round(boolean report) {
+                for(int arity : ARITIES) {
+                    double drain = drain(values, size, arity);
+                    double steady = popPush(values, size, arity);
+
+                    if(report)
+                        System.out.printf("arity %d  drain %7.1f ns/remove  pop+push %7.1f ns/op%n",
+                                          arity, drain, steady);
+                }
+            }
+        }.measure(rounds);
+    }
+
+    // Average time of a remove() while emptying a full heap
+    private static double drain(Integer[] values, int size, int arity) {
+        BinaryHeap<Integer> heap = fill(values, size, arity);
+        long start = System.nanoTime();
+        long sum = 0;
+
+        while(!heap.isEmpty())
+            sum += heap.remove();
+        return Benchmark.check(sum, (System.nanoTime() - start) / (double) size);
+    }
+
+    // Average time of a remove() followed by an add() on a full heap
+    private static double popPush(Integer[] values, int size, int arity) {
+        BinaryHeap<Integer> heap = fill(values, size, arity);
+        long start = System.nanoTime();
+        long sum = 0;
+
+        for(int i = 0; i < size; i++) {
+            sum += heap.remove();
+            heap.add(values[size + i]);
+        }
+        return Benchmark.check(sum, (System.nanoTime() - start) / (double) size);
+    }
+
+    private static BinaryHeap<Integer> fill(Integer[] values, int size, int arity) {
+        BinaryHeap<Integer> heap = new BinaryHeap<>(size, arity, null);
+        
+        for(int i = 0; i < size; i++)
+            heap.add(values[i]);
+        return heap;
+    }
+}
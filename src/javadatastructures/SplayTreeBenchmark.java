@@ -0,0 +1,100 @@
+package javadatastructures;
+
+import Data_Structures.SplayTree;
+import java.util.Random;
+
+/**
+ * Compares get() throughput of SplayTree under each read policy, for
+ * keys read uniformly at random and for keys read with a Zipf
+ * distribution, where a few keys get most of the reads. Hot keys are
+ * spread over the whole key range.
+ *
+ * Usage: SplayTreeBenchmark [tree size] [reads] [rounds] [zipf exponent]
+ */
+public class SplayTreeBenchmark {
+
+    public static void main(String[] args) {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+        Random random = new Random(42);
+        final int[] uniform = new int[reads];
+        final int[] zipf = zipf(size, reads, exponent, random);
+        final int depth = 32 - Integer.numberOfLeadingZeros(size);
+
+        for(int i = 0; i < reads; i++)
+            uniform[i] = random.nextInt(size);
+
+        new Benchmark() {
+            void round(boolean report) {
+                for(SplayTree.Policy policy : SplayTree.Policy.values()) {
+                    int parameter = policy == SplayTree.Policy.EVERY_KTH ? 16 : depth;
+                    double u = run(policy, parameter, size, uniform);
+                    double z = run(policy, parameter, size, zipf);
+
+                    if(report)
+                        System.out.printf("%-16s uniform %7.1f ns/get  zipf %7.1f ns/get%n",
+                                          policy, u, z);
+                }
+            }
+        }.measure(rounds);
+    }
+
+    // Average time of a get() over a tree filled in random order
+    private static double run(SplayTree.Policy policy, int parameter, int size, int[] keys) {
+        SplayTree<Integer, Integer> tree = new SplayTree<>(policy, parameter);
+        Random random = new Random(7);
+        long sum = 0;
+
+        for(int i = 0; i < size; i++) {
+            int key = random.nextInt(size);
+            tree.add(key, key);
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < keys.length; i++) {
+            Integer value = tree.get(keys[i]);
+            if(value != null)
+                sum += value;
+        }
+        return Benchmark.check(sum, (System.nanoTime() - start) / (double) keys.length);
+    }
+
+    /**
+     * Draws keys whose rank r is picked with probability proportional to
+     * 1 / r^exponent. Ranks are mapped to keys by a random permutation.
+     */
+    private static int[] zipf(int size, int count, double exponent, Random random) {
+        double[] cdf = new double[size];
+        int[] keyOfRank = new int[size];
+        int[] keys = new int[count];
+        double total = 0;
+
+        for(int i = 0; i < size; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = total;
+            keyOfRank[i] = i;
+        }
+        for(int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = keyOfRank[i];
+            keyOfRank[i] = keyOfRank[j];
+            keyOfRank[j] = tmp;
+        }
+
+        for(int i = 0; i < count; i++) {
+            double target = random.nextDouble() * total;
+            int low = 0, high = size - 1;
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(cdf[middle] < target)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            keys[i] = keyOfRank[low];
+        }
+        return keys;
+    }
+}